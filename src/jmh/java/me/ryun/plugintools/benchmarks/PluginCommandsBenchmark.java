@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.benchmarks;
+
+import me.ryun.plugintools.PluginCommands;
+import me.ryun.plugintools.simulation.Headless;
+import me.ryun.plugintools.simulation.NamedExecutor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link PluginCommands} with different amounts of executors and different positions of the one that handles the command.
+ * Run with the GC profiler (the jmh Gradle task does this) to see the allocations per operation
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginCommandsBenchmark {
+    /**
+     * Where the executor that handles the command is in the list
+     */
+    public enum Position {
+        FIRST, MIDDLE, LAST, MISS
+    }
+
+    @Param({"1", "10", "100", "1000"})
+    public int executors;
+
+    @Param({"FIRST", "MIDDLE", "LAST", "MISS"})
+    public Position position;
+
+    /**
+     * Whether the executors were added with {@link PluginCommands#register(org.bukkit.command.TabExecutor, String, String...)} or {@link PluginCommands#add(Object)}
+     */
+    @Param({"false", "true"})
+    public boolean registered;
+
+    private PluginCommands commands;
+    private CommandSender sender;
+    private Command command;
+    private String[] args;
+
+    @Setup
+    public void setup() {
+        commands = new PluginCommands();
+
+        for(int i = 0; i < executors; i++) {
+            String name = "command" + i;
+
+            if(registered)
+                commands.register(new NamedExecutor(name), name);
+            else
+                commands.add(new NamedExecutor(name));
+        }
+
+        int hit;
+        switch (position) {
+            case FIRST:
+                hit = 0;
+                break;
+            case MIDDLE:
+                hit = executors / 2;
+                break;
+            case LAST:
+                hit = executors - 1;
+                break;
+            default:
+                hit = -1;
+        }
+
+        sender = Headless.sender("Benchmark");
+        command = Headless.command(hit < 0 ? "missing" : "command" + hit);
+        args = new String[] {""};
+
+        //Build the index before measuring
+        commands.call(sender, command, command.getName(), args);
+    }
+
+    @Benchmark
+    public boolean call() {
+        return commands.call(sender, command, command.getName(), args);
+    }
+
+    @Benchmark
+    public boolean callAll() {
+        return commands.callAll(sender, command, command.getName(), args);
+    }
+
+    @Benchmark
+    public List<String> completeTab() {
+        return commands.completeTab(sender, command, command.getName(), args);
+    }
+
+    @Benchmark
+    public List<String> completeTabAll() {
+        return commands.completeTabAll(sender, command, command.getName(), args);
+    }
+}
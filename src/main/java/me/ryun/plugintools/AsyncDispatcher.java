@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded thread pool for running commands outside the server thread, and handing their results back to it with the Bukkit scheduler
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class AsyncDispatcher {
+    private final JavaPlugin plugin;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     * @param plugin The {@link JavaPlugin} that owns the scheduled tasks
+     * @param threads The maximum amount of threads
+     * @param queueCapacity The maximum amount of tasks waiting for a thread
+     */
+    private AsyncDispatcher(JavaPlugin plugin, int threads, int queueCapacity) {
+        this.plugin = plugin;
+
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, plugin.getName() + "-Command-" + count.incrementAndGet());
+            thread.setDaemon(true); //Never keep the server from stopping
+
+            return thread;
+        };
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs the task on one of the threads
+     * @param task {@link Runnable}
+     * @return If the task was accepted. False if every thread is busy and the queue is full, or if this was shut down
+     */
+    public boolean execute(@Nonnull Runnable task) {
+        try {
+            executor.execute(task);
+
+            return true;
+        } catch (RejectedExecutionException ignored) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the task on one of the threads
+     * @param task {@link Callable}
+     * @return The {@link Future} of the result, or null if every thread is busy and the queue is full, or if this was shut down
+     * @param <T> The type of the result
+     */
+    public <T> Future<T> submit(@Nonnull Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the task on the server thread. Runs it right away if this is already the server thread, otherwise on the next tick
+     * @param task {@link Runnable}
+     */
+    public void runOnMainThread(@Nonnull Runnable task) {
+        if(Bukkit.isPrimaryThread())
+            task.run();
+        else
+            Bukkit.getScheduler().runTask(plugin, task);
+    }
+
+    /**
+     * Calls the task on the server thread and returns its result. Calls it right away if this is already the server thread so waiting for it never deadlocks
+     * @param task {@link Callable}
+     * @return The {@link Future} of the result
+     * @param <T> The type of the result
+     */
+    public <T> Future<T> callOnMainThread(@Nonnull Callable<T> task) {
+        if(!Bukkit.isPrimaryThread())
+            return Bukkit.getScheduler().callSyncMethod(plugin, task);
+
+        try {
+            return CompletableFuture.completedFuture(task.call());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Get the {@link JavaPlugin} that owns the scheduled tasks
+     * @return {@link JavaPlugin}
+     */
+    public JavaPlugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Stops accepting tasks. Tasks that were already accepted still finish. Call this in {@link JavaPlugin#onDisable()}
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * The Factory for setting the Async Dispatcher
+     */
+    public static class Factory {
+        private JavaPlugin plugin;
+        private int threads;
+        private int queueCapacity;
+
+        /**
+         * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
+         */
+        private Factory() {
+            plugin = null;
+            threads = 2;
+            queueCapacity = 64;
+        }
+
+        /**
+         * Make a new {@link Factory} instance
+         * @return {@link Factory}
+         */
+        public static Factory make() {
+            return new Factory();
+        }
+
+        /**
+         * Sets the {@link JavaPlugin} value
+         * @param value {@link JavaPlugin}
+         * @return The same instance
+         */
+        public Factory setPlugin(@Nonnull JavaPlugin value) {
+            this.plugin = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of threads. Defaults to 2
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setThreads(int value) {
+            this.threads = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of tasks waiting for a thread. Defaults to 64
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setQueueCapacity(int value) {
+            this.queueCapacity = value;
+
+            return this;
+        }
+
+        /**
+         * Creates the new {@link AsyncDispatcher} instance
+         * @return {@link AsyncDispatcher}
+         */
+        public AsyncDispatcher create() {
+            Objects.requireNonNull(plugin, "Plugin value has to be set!");
+
+            if(threads < 1 || queueCapacity < 1)
+                throw new IllegalArgumentException("Threads and queue capacity have to be at least 1!");
+
+            return new AsyncDispatcher(plugin, threads, queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+
+/**
+ * A {@link TabExecutor} that can be called outside the server thread by {@link PluginCommands#callAsync(CommandSender, Command, String, String[])},
+ * and at the same time as the other executors by {@link PluginCommands#callAllParallel(CommandSender, Command, String, String[], java.time.Duration)}
+ * and {@link PluginCommands#completeTabAllParallel(CommandSender, Command, String, String[], java.time.Duration)}, so it has to be thread-safe.
+ * Use {@link AsyncDispatcher#runOnMainThread(Runnable)} to hand the results back to the server thread
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public interface AsyncTabExecutor extends TabExecutor {
+    /**
+     * Does this executor have to be called on the server thread? Override this to return true to call it like a normal {@link TabExecutor}
+     * @return boolean
+     */
+    default boolean isMainThreadRequired() {
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.TabExecutor;
+
+/**
+ * Implemented by a {@link TabExecutor} whose tab completions can be remembered by the {@link TabCompletionCache} of a {@link PluginCommands}.
+ * Only implement it if the completions are expensive and it's fine if they are a little outdated, i.e. listing warps from a database
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public interface CachedTabCompletion {
+}
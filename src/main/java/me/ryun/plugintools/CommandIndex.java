@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.TabExecutor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable lookup table of the {@link TabExecutor} in a {@link PluginCommands} grouped by the command names they are registered under,
+ * along with the {@link CompletionTrie} of each {@link TabCandidates} executor and the permission number of each {@link RequiredPermission} executor
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+final class CommandIndex {
+    /**
+     * The index of an empty {@link PluginCommands}
+     */
+    static final CommandIndex EMPTY = new CommandIndex(new TabExecutor[0], new IdentityHashMap<>());
+
+    private final TabExecutor[] executors;
+    private final TabExecutor[] unnamed;
+    private final Map<TabExecutor, String[]> names;
+    private final Map<String, TabExecutor[]> buckets;
+    private final Map<TabExecutor, CompletionTrie[]> tries;
+    private final Map<TabExecutor, Integer> permissionNodes;
+
+    /**
+     * Builds the buckets for each name. Executors without a name are added to every bucket so the order they were added in is kept
+     * @param executors All of the {@link TabExecutor} by order
+     * @param names The names each {@link TabExecutor} is registered under. Executors not in here receive every command
+     */
+    CommandIndex(@NotNull TabExecutor[] executors, @NotNull Map<TabExecutor, String[]> names) {
+        Map<TabExecutor, String[]> registered = new IdentityHashMap<>();
+        Map<TabExecutor, CompletionTrie[]> tries = new IdentityHashMap<>();
+        Map<TabExecutor, Integer> permissionNodes = new IdentityHashMap<>();
+        Set<String> keys = new LinkedHashSet<>();
+        List<TabExecutor> unnamed = new ArrayList<>();
+
+        for (TabExecutor executor: executors) {
+            String[] executorNames = names.get(executor);
+
+            if(executor instanceof RequiredPermission)
+                permissionNodes.put(executor, PermissionCache.getNode(((RequiredPermission) executor).getRequiredPermission()));
+
+            if(executorNames == null) {
+                unnamed.add(executor);
+                continue;
+            }
+
+            //Only registered executors are known to own the command, an unnamed one receives every command and is called instead
+            if(executor instanceof TabCandidates && !tries.containsKey(executor))
+                tries.put(executor, build(((TabCandidates) executor).getTabCandidates()));
+
+            registered.put(executor, executorNames);
+            for (String name: executorNames)
+                keys.add(name);
+        }
+
+        Map<String, TabExecutor[]> buckets = new HashMap<>();
+
+        for (String key: keys) {
+            List<TabExecutor> bucket = new ArrayList<>();
+
+            for (TabExecutor executor: executors) {
+                String[] executorNames = registered.get(executor);
+
+                if(executorNames == null || contains(executorNames, key))
+                    bucket.add(executor);
+            }
+
+            buckets.put(key, bucket.toArray(new TabExecutor[0]));
+        }
+
+        this.executors = executors;
+        this.unnamed = unnamed.toArray(new TabExecutor[0]);
+        this.names = registered;
+        this.buckets = buckets;
+        this.tries = tries;
+        this.permissionNodes = permissionNodes;
+    }
+
+    /**
+     * Normalizes a command name or alias to the key used in the buckets
+     * @param name {@link String}
+     * @return The lowercase name. Returns the same instance if it is already lowercase
+     */
+    static @NotNull String key(@NotNull String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the executors that should receive the command. Looks for the command name first then the label that was used
+     * @param command {@link Command}
+     * @param label The label or alias used to call the command
+     * @return The executors by order. Never copy or modify this array
+     */
+    @NotNull TabExecutor[] get(@NotNull Command command, @NotNull String label) {
+        if(buckets.isEmpty())
+            return executors;
+
+        TabExecutor[] bucket = buckets.get(key(command.getName()));
+
+        if(bucket == null)
+            bucket = buckets.get(key(label));
+
+        return bucket != null ? bucket : unnamed;
+    }
+
+    /**
+     * Adds the tab completions of a registered {@link TabCandidates} executor for the last argument, without calling the executor.
+     * Every earlier argument that has values has to be one of them, otherwise the executor is called
+     * @param executor {@link TabExecutor}
+     * @param args The arguments typed so far
+     * @param results Where the completions are added
+     * @return If the completions were answered from the {@link TabCandidates}. If false, the executor has to be called instead
+     */
+    boolean complete(@NotNull TabExecutor executor, @NotNull String[] args, @NotNull List<String> results) {
+        if(tries.isEmpty())
+            return false;
+
+        CompletionTrie[] executorTries = tries.get(executor);
+        int position = Math.max(args.length - 1, 0);
+
+        if(executorTries == null || position >= executorTries.length || executorTries[position] == null)
+            return false;
+
+        for(int i = 0; i < position; i++) {
+            if(executorTries[i] != null && !executorTries[i].contains(args[i]))
+                return false;
+        }
+
+        executorTries[position].complete(args.length > 0 ? args[position] : "", results);
+
+        return true;
+    }
+
+    /**
+     * Get the number of the permission a {@link RequiredPermission} executor needs, looked up once when the index was built
+     * @param executor {@link TabExecutor} in this index
+     * @return The number from {@link PermissionCache#getNode(String)}, or -1 if the executor doesn't need a permission
+     */
+    int getPermissionNode(@NotNull TabExecutor executor) {
+        if(permissionNodes.isEmpty())
+            return -1;
+
+        Integer node = permissionNodes.get(executor);
+
+        return node != null ? node : -1;
+    }
+
+    /**
+     * Get all of the executors by order
+     * @return The executors. Never copy or modify this array
+     */
+    @NotNull TabExecutor[] getExecutors() {
+        return executors;
+    }
+
+    /**
+     * Get the names of the executors that are still in the index
+     * @return A map keyed by the {@link TabExecutor} identity
+     */
+    @NotNull Map<TabExecutor, String[]> getNames() {
+        return names;
+    }
+
+    private static CompletionTrie[] build(String[][] candidates) {
+        CompletionTrie[] tries = new CompletionTrie[candidates.length];
+
+        for(int i = 0; i < candidates.length; i++) {
+            if(candidates[i] != null)
+                tries[i] = new CompletionTrie(candidates[i]);
+        }
+
+        return tries;
+    }
+
+    private static boolean contains(String[] names, String key) {
+        for (String name: names) {
+            if(name.equals(key))
+                return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Limits how often each player can call commands and tab complete, so players spamming them can't lag the server.
+ * Each limit is a token bucket that refills over time, kept as a single atomic value per player so checking it never locks.
+ * Only players are limited, the console and command blocks never are. Register it as a {@link Listener} to forget the players when they quit
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class CommandRateLimiter implements Listener {
+    /**
+     * What happens to a command over the limit. Tab completions over the limit are always answered with no completions
+     */
+    public enum Policy {
+        /**
+         * The command is not called and the player is told to slow down
+         */
+        REJECT,
+        /**
+         * The command is silently not called
+         */
+        DROP,
+        /**
+         * The command is called on a later tick, once the limit allows it. Commands over the queue capacity are rejected
+         */
+        QUEUE
+    }
+
+    private static final int COMMANDS = 0;
+    private static final int COMPLETIONS = 1;
+
+    private final JavaPlugin plugin;
+    private final Policy policy;
+    private final int queueCapacity;
+    private final String message;
+    private final Limit[] limits;
+    private final Map<String, Integer> commandSlots;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<UUID, SenderState> senders = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder throttledCompletions = new LongAdder();
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     * @param plugin The {@link JavaPlugin} that owns the queued commands
+     * @param policy {@link Policy}
+     * @param queueCapacity The maximum amount of queued commands of each player
+     * @param message The message sent to rejected players
+     * @param limits The limit of every command, then of every tab completion, then of each command with its own limit. Null if unlimited
+     * @param commandSlots The index in the limits of each command with its own limit
+     * @param clock The current time in nanoseconds
+     */
+    private CommandRateLimiter(JavaPlugin plugin, Policy policy, int queueCapacity, String message, Limit[] limits, Map<String, Integer> commandSlots, LongSupplier clock) {
+        this.plugin = plugin;
+        this.policy = policy;
+        this.queueCapacity = queueCapacity;
+        this.message = message;
+        this.limits = limits;
+        this.commandSlots = commandSlots;
+        this.clock = clock;
+    }
+
+    /**
+     * Calls the command if the sender is within the limits, otherwise handles it according to the {@link Policy}
+     * @param sender {@link CommandSender}
+     * @param command {@link Command}
+     * @param dispatch Calls the executors of the command
+     * @return The result of the command, or true if it was rejected, dropped or queued so Bukkit doesn't send the usage message
+     */
+    boolean call(@NotNull CommandSender sender, @NotNull Command command, @NotNull BooleanSupplier dispatch) {
+        if(!(sender instanceof Player))
+            return dispatch.getAsBoolean();
+
+        Player player = (Player) sender;
+        long now = clock.getAsLong();
+        SenderState state = senders.computeIfAbsent(player.getUniqueId(), ignored -> new SenderState(limits.length, now));
+        Integer commandSlot = commandSlots.get(CommandIndex.key(command.getName()));
+        boolean isQueueing = policy == Policy.QUEUE && state.queued.get() < queueCapacity;
+        long delay = 0;
+
+        //The command's own limit first, so a command over it doesn't use up the limit of every command
+        if(commandSlot != null)
+            delay = reserve(state.buckets, commandSlot, now, isQueueing);
+        if(delay >= 0) {
+            long commandsDelay = reserve(state.buckets, COMMANDS, now, isQueueing);
+
+            //Over the limit of every command, so the command's own token is given back
+            if(commandsDelay < 0 && commandSlot != null)
+                refund(state.buckets, commandSlot);
+
+            delay = commandsDelay < 0 ? commandsDelay : Math.max(delay, commandsDelay);
+        }
+
+        if(delay == 0)
+            return dispatch.getAsBoolean();
+
+        if(delay > 0 && state.queued.incrementAndGet() <= queueCapacity) {
+            queued.increment();
+            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                state.queued.decrementAndGet();
+
+                //Never call a command for a player that already left
+                if(player.isOnline())
+                    dispatch.getAsBoolean();
+            }, TimeUnit.NANOSECONDS.toMillis(delay) / 50 + 1); //Rounded up to the next tick
+
+            return true;
+        }
+
+        //Another command of the player filled the queue first, so both reserved tokens are given back
+        if(delay > 0) {
+            state.queued.decrementAndGet();
+            refund(state.buckets, COMMANDS);
+
+            if(commandSlot != null)
+                refund(state.buckets, commandSlot);
+        }
+
+        if(policy == Policy.DROP) {
+            dropped.increment();
+        } else {
+            rejected.increment();
+
+            if(!message.isEmpty())
+                sender.sendMessage(message);
+        }
+
+        return true;
+    }
+
+    /**
+     * Tab completes the command if the sender is within the limit
+     * @param sender {@link CommandSender}
+     * @param command {@link Command}
+     * @param dispatch Tab completes the executors of the command
+     * @return The tab completions, or no tab completions if the sender is over the limit
+     */
+    List<String> complete(@NotNull CommandSender sender, @NotNull Command command, @NotNull Supplier<List<String>> dispatch) {
+        if(!(sender instanceof Player) || limits[COMPLETIONS] == null)
+            return dispatch.get();
+
+        long now = clock.getAsLong();
+        SenderState state = senders.computeIfAbsent(((Player) sender).getUniqueId(), ignored -> new SenderState(limits.length, now));
+
+        if(reserve(state.buckets, COMPLETIONS, now, false) == 0)
+            return dispatch.get();
+
+        throttledCompletions.increment();
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Takes a token from a bucket, or reserves the next one if the command can be queued. The bucket only stores when it will be full again,
+     * which is the Generic Cell Rate Algorithm
+     * @return 0 if a token was taken, how long to wait in nanoseconds if the next token was reserved, or -1 if the sender is over the limit
+     */
+    private long reserve(AtomicLongArray buckets, int slot, long now, boolean isQueueing) {
+        Limit limit = limits[slot];
+
+        if(limit == null)
+            return 0;
+
+        //Queued commands can reserve the tokens of the next period
+        long maximumDelay = isQueueing ? limit.interval * queueCapacity : 0;
+
+        while(true) {
+            long full = buckets.get(slot);
+            long start = full - now > 0 ? full : now;
+            long delay = start - limit.tolerance - now;
+
+            if(delay > maximumDelay)
+                return -1;
+            if(buckets.compareAndSet(slot, full, start + limit.interval))
+                return Math.max(delay, 0);
+        }
+    }
+
+    /**
+     * Gives back a token that was taken or reserved by {@link #reserve(AtomicLongArray, int, long, boolean)}, which moves the time the bucket is full back by one interval
+     */
+    private void refund(AtomicLongArray buckets, int slot) {
+        Limit limit = limits[slot];
+
+        if(limit != null)
+            buckets.addAndGet(slot, -limit.interval);
+    }
+
+    /**
+     * Forgets the limits of the player that quit
+     * @param event {@link PlayerQuitEvent} from the {@link EventHandler}
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuitEvent(@NotNull PlayerQuitEvent event) {
+        senders.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Forgets the limits of a player, giving them their full limits back
+     * @param player {@link Player}
+     */
+    public void reset(@NotNull Player player) {
+        senders.remove(player.getUniqueId());
+    }
+
+    /**
+     * Get the {@link Policy} for commands over the limit
+     * @return {@link Policy}
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Get the amount of players whose limits are remembered
+     * @return int
+     */
+    public int size() {
+        return senders.size();
+    }
+
+    /**
+     * Get how many commands were rejected, including the ones that didn't fit in the queue
+     * @return long
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Get how many commands were silently dropped
+     * @return long
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Get how many commands were queued for a later tick
+     * @return long
+     */
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    /**
+     * Get how many tab completions were answered with no completions
+     * @return long
+     */
+    public long getThrottledCompletions() {
+        return throttledCompletions.sum();
+    }
+
+    /**
+     * A token bucket of a number of permits per period
+     */
+    private static final class Limit {
+        private final long interval;
+        private final long tolerance;
+
+        private Limit(int permits, Duration per) {
+            this.interval = per.toNanos() / permits;
+            this.tolerance = per.toNanos() - interval;
+        }
+    }
+
+    /**
+     * The buckets of a sender, in the same order as the limits
+     */
+    private static final class SenderState {
+        private final AtomicLongArray buckets;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private SenderState(int size, long now) {
+            this.buckets = new AtomicLongArray(size);
+
+            //Every bucket starts full
+            for(int i = 0; i < size; i++)
+                buckets.set(i, now);
+        }
+    }
+
+    /**
+     * The Factory for setting the Command Rate Limiter
+     */
+    public static class Factory {
+        private JavaPlugin plugin;
+        private Policy policy;
+        private int queueCapacity;
+        private String message;
+        private int commandPermits;
+        private Duration commandPeriod;
+        private int completionPermits;
+        private Duration completionPeriod;
+        private final Map<String, Integer> commandPermitsByName;
+        private final Map<String, Duration> commandPeriodsByName;
+        private LongSupplier clock;
+
+        /**
+         * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
+         */
+        private Factory() {
+            plugin = null;
+            policy = Policy.REJECT;
+            queueCapacity = 4;
+            message = "You are sending commands too fast, slow down!";
+            commandPermits = 10;
+            commandPeriod = Duration.ofSeconds(1);
+            completionPermits = 20;
+            completionPeriod = Duration.ofSeconds(1);
+            commandPermitsByName = new LinkedHashMap<>();
+            commandPeriodsByName = new HashMap<>();
+            clock = System::nanoTime;
+        }
+
+        /**
+         * Make a new {@link Factory} instance
+         * @return {@link Factory}
+         */
+        public static Factory make() {
+            return new Factory();
+        }
+
+        /**
+         * Sets the {@link JavaPlugin} value
+         * @param value {@link JavaPlugin}
+         * @return The same instance
+         */
+        public Factory setPlugin(@Nonnull JavaPlugin value) {
+            this.plugin = value;
+
+            return this;
+        }
+
+        /**
+         * Sets what happens to a command over the limit. Defaults to {@link Policy#REJECT}
+         * @param value {@link Policy}
+         * @return The same instance
+         */
+        public Factory setPolicy(@Nonnull Policy value) {
+            this.policy = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of queued commands of each player with {@link Policy#QUEUE}. Defaults to 4
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setQueueCapacity(int value) {
+            this.queueCapacity = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the message sent to players with {@link Policy#REJECT}. Set to an empty message to send nothing
+         * @param value String
+         * @return The same instance
+         */
+        public Factory setMessage(@Nonnull String value) {
+            this.message = value;
+
+            return this;
+        }
+
+        /**
+         * Sets how many commands each player can call per period, across every command. Defaults to 10 per second. Set 0 permits for no limit
+         * @param permits int
+         * @param per {@link Duration}
+         * @return The same instance
+         */
+        public Factory setCommandLimit(int permits, @Nonnull Duration per) {
+            this.commandPermits = permits;
+            this.commandPeriod = per;
+
+            return this;
+        }
+
+        /**
+         * Sets how many tab completions each player can request per period. Defaults to 20 per second. Set 0 permits for no limit
+         * @param permits int
+         * @param per {@link Duration}
+         * @return The same instance
+         */
+        public Factory setCompletionLimit(int permits, @Nonnull Duration per) {
+            this.completionPermits = permits;
+            this.completionPeriod = per;
+
+            return this;
+        }
+
+        /**
+         * Sets how many times each player can call a command per period, on top of the limit of every command
+         * @param command The name of the command as defined in the plugin.yml
+         * @param permits int
+         * @param per {@link Duration}
+         * @return The same instance
+         */
+        public Factory setLimit(@Nonnull String command, int permits, @Nonnull Duration per) {
+            this.commandPermitsByName.put(CommandIndex.key(command), permits);
+            this.commandPeriodsByName.put(CommandIndex.key(command), per);
+
+            return this;
+        }
+
+        /**
+         * Sets where the current time in nanoseconds comes from. Package-private, since only the tests need another clock. Defaults to {@link System#nanoTime()}
+         * @param value {@link LongSupplier}
+         * @return The same instance
+         */
+        Factory setClock(@Nonnull LongSupplier value) {
+            this.clock = value;
+
+            return this;
+        }
+
+        /**
+         * Creates the new {@link CommandRateLimiter} instance
+         * @return {@link CommandRateLimiter}
+         */
+        public CommandRateLimiter create() {
+            Objects.requireNonNull(plugin, "Plugin value has to be set!");
+
+            if(queueCapacity < 1)
+                throw new IllegalArgumentException("Queue capacity has to be at least 1!");
+
+            Limit[] limits = new Limit[commandPermitsByName.size() + 2];
+            Map<String, Integer> commandSlots = new HashMap<>();
+
+            limits[COMMANDS] = limit(commandPermits, commandPeriod);
+            limits[COMPLETIONS] = limit(completionPermits, completionPeriod);
+
+            for (Map.Entry<String, Integer> entry: commandPermitsByName.entrySet()) {
+                int slot = commandSlots.size() + 2;
+
+                limits[slot] = limit(entry.getValue(), commandPeriodsByName.get(entry.getKey()));
+                commandSlots.put(entry.getKey(), slot);
+            }
+
+            return new CommandRateLimiter(plugin, policy, queueCapacity, message, limits, Collections.unmodifiableMap(commandSlots), clock);
+        }
+
+        private static Limit limit(int permits, Duration per) {
+            if(permits == 0)
+                return null;
+            if(permits < 0 || per.isNegative() || per.toNanos() < permits)
+                throw new IllegalArgumentException("Permits and period have to be positive!");
+
+            return new Limit(permits, per);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.TabExecutor;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Records how many times and how long each {@link TabExecutor} in a {@link PluginCommands} took to execute or tab complete.
+ * The timings of each command are only recorded if detailed, which follows {@link PluginEnvironment#isDevelopment()} and {@link PluginEnvironment#isVerbose()}
+ * of the plugin's environment by default
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class CommandTimings {
+    private final Map<TabExecutor, LatencyRecorder> executorCalls = new ConcurrentHashMap<>();
+    private final Map<TabExecutor, LatencyRecorder> executorCompletions = new ConcurrentHashMap<>();
+    private final Map<String, LatencyRecorder> commandCalls = new ConcurrentHashMap<>();
+    private final Map<String, LatencyRecorder> commandCompletions = new ConcurrentHashMap<>();
+    private final JavaPlugin plugin;
+    private final boolean isFollowingEnvironment;
+    private final boolean isDetailed;
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     * @param plugin The {@link JavaPlugin} whose {@link PluginEnvironment} is followed, or null to follow the latest one
+     * @param isFollowingEnvironment Whether the detailed timings follow the {@link PluginEnvironment}
+     * @param isDetailed Whether the timings of each command are recorded if not following the {@link PluginEnvironment}
+     */
+    private CommandTimings(JavaPlugin plugin, boolean isFollowingEnvironment, boolean isDetailed) {
+        this.plugin = plugin;
+        this.isFollowingEnvironment = isFollowingEnvironment;
+        this.isDetailed = isDetailed;
+    }
+
+    /**
+     * Records an invocation of {@link TabExecutor#onCommand(org.bukkit.command.CommandSender, Command, String, String[])}
+     * @param executor {@link TabExecutor}
+     * @param command {@link Command}
+     * @param nanos How long it took
+     */
+    void recordCall(@NotNull TabExecutor executor, @NotNull Command command, long nanos) {
+        recorder(executorCalls, executor).record(nanos);
+
+        if(isDetailed())
+            recorder(commandCalls, command.getName()).record(nanos);
+    }
+
+    /**
+     * Records an invocation of {@link TabExecutor#onTabComplete(org.bukkit.command.CommandSender, Command, String, String[])}
+     * @param executor {@link TabExecutor}
+     * @param command {@link Command}
+     * @param nanos How long it took
+     */
+    void recordCompletion(@NotNull TabExecutor executor, @NotNull Command command, long nanos) {
+        recorder(executorCompletions, executor).record(nanos);
+
+        if(isDetailed())
+            recorder(commandCompletions, command.getName()).record(nanos);
+    }
+
+    /**
+     * Are the timings of each command recorded?
+     * @return boolean
+     */
+    public boolean isDetailed() {
+        if(!isFollowingEnvironment)
+            return isDetailed;
+
+        //Another plugin sharing this class might have created the latest environment
+        PluginEnvironment environment = plugin != null ? PluginEnvironment.getRegisteredOrNull(plugin) : PluginEnvironment.getOrNull();
+
+        return environment != null && (environment.isDevelopment() || environment.isVerbose());
+    }
+
+    /**
+     * Get the recorded command executions of an executor
+     * @param executor {@link TabExecutor}
+     * @return {@link LatencyRecorder} or null if it was never called
+     */
+    public LatencyRecorder getCalls(@NotNull TabExecutor executor) {
+        return executorCalls.get(executor);
+    }
+
+    /**
+     * Get the recorded tab completions of an executor
+     * @param executor {@link TabExecutor}
+     * @return {@link LatencyRecorder} or null if it was never called
+     */
+    public LatencyRecorder getCompletions(@NotNull TabExecutor executor) {
+        return executorCompletions.get(executor);
+    }
+
+    /**
+     * Formats the p50, p99 and max of every executor and, if detailed, every command, slowest first
+     * @return The lines of the report
+     */
+    public @NotNull List<String> report() {
+        List<String> lines = new ArrayList<>();
+
+        lines.add("Executors (calls):");
+        report(lines, executorCalls, executor -> executor.getClass().getName());
+        lines.add("Executors (tab completions):");
+        report(lines, executorCompletions, executor -> executor.getClass().getName());
+
+        if(!commandCalls.isEmpty() || !commandCompletions.isEmpty()) {
+            lines.add("Commands (calls):");
+            report(lines, commandCalls, name -> "/" + name);
+            lines.add("Commands (tab completions):");
+            report(lines, commandCompletions, name -> "/" + name);
+        }
+
+        return lines;
+    }
+
+    /**
+     * Forgets everything that was recorded
+     */
+    public void reset() {
+        executorCalls.clear();
+        executorCompletions.clear();
+        commandCalls.clear();
+        commandCompletions.clear();
+    }
+
+    private static <K> LatencyRecorder recorder(Map<K, LatencyRecorder> recorders, K key) {
+        LatencyRecorder recorder = recorders.get(key);
+
+        //Only lock the map the first time
+        if(recorder == null)
+            recorder = recorders.computeIfAbsent(key, ignored -> new LatencyRecorder());
+
+        return recorder;
+    }
+
+    private static <K> void report(List<String> lines, Map<K, LatencyRecorder> recorders, Function<K, String> naming) {
+        if(recorders.isEmpty()) {
+            lines.add("  Nothing recorded");
+            return;
+        }
+
+        List<Map.Entry<K, LatencyRecorder>> entries = new ArrayList<>(recorders.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<K, LatencyRecorder> entry) -> entry.getValue().getTotal()).reversed());
+
+        for (Map.Entry<K, LatencyRecorder> entry: entries) {
+            LatencyRecorder recorder = entry.getValue();
+
+            lines.add(String.format(Locale.ROOT, "  %s: %d calls, p50 %.3fms, p99 %.3fms, max %.3fms",
+                    naming.apply(entry.getKey()),
+                    recorder.getCount(),
+                    recorder.getPercentile(50) / 1_000_000.0,
+                    recorder.getPercentile(99) / 1_000_000.0,
+                    recorder.getMax() / 1_000_000.0));
+        }
+    }
+
+    /**
+     * The Factory for setting the Command Timings
+     */
+    public static class Factory {
+        private JavaPlugin plugin;
+        private boolean isFollowingEnvironment;
+        private boolean isDetailed;
+
+        /**
+         * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
+         */
+        private Factory() {
+            plugin = null;
+            isFollowingEnvironment = true;
+            isDetailed = false;
+        }
+
+        /**
+         * Make a new {@link Factory} instance
+         * @return {@link Factory}
+         */
+        public static Factory make() {
+            return new Factory();
+        }
+
+        /**
+         * Sets the {@link JavaPlugin} whose {@link PluginEnvironment}, created with {@link PluginEnvironment.Factory#setPlugin(JavaPlugin)}, is followed.
+         * Without it the latest {@link PluginEnvironment} is followed, which might belong to another plugin sharing this class
+         * @param value {@link JavaPlugin}
+         * @return The same instance
+         */
+        public Factory setPlugin(@NotNull JavaPlugin value) {
+            this.plugin = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the isDetailed value, which stops following the {@link PluginEnvironment}
+         * @param value boolean
+         * @return The same instance
+         */
+        public Factory isDetailed(boolean value) {
+            this.isFollowingEnvironment = false;
+            this.isDetailed = value;
+
+            return this;
+        }
+
+        /**
+         * Creates the new {@link CommandTimings} instance
+         * @return {@link CommandTimings}
+         */
+        public CommandTimings create() {
+            return new CommandTimings(plugin, isFollowingEnvironment, isDetailed);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable case-insensitive prefix tree of the values from {@link TabCandidates}.
+ * The values are sorted so every node only has to remember the range of values that starts with its prefix
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+final class CompletionTrie {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final String[] values;
+    private final Node root;
+
+    /**
+     * Sorts the values and builds the nodes
+     * @param values The values that can be completed
+     */
+    CompletionTrie(@NotNull String[] values) {
+        this.values = values.clone();
+        Arrays.sort(this.values, String.CASE_INSENSITIVE_ORDER);
+
+        this.root = build(0, 0, this.values.length);
+    }
+
+    /**
+     * Adds every value that starts with the prefix, ignoring case, to the results by order
+     * @param prefix What was typed so far
+     * @param results Where the matches are added
+     */
+    void complete(@NotNull String prefix, @NotNull List<String> results) {
+        Node node = root;
+
+        for(int i = 0; i < prefix.length(); i++) {
+            int child = Arrays.binarySearch(node.keys, fold(prefix.charAt(i)));
+
+            if(child < 0)
+                return;
+
+            node = node.children[child];
+        }
+
+        for(int i = node.from; i < node.to; i++)
+            results.add(values[i]);
+    }
+
+    /**
+     * Is the value one of the values, ignoring case?
+     * @param value What was typed
+     * @return boolean
+     */
+    boolean contains(@NotNull String value) {
+        Node node = root;
+
+        for(int i = 0; i < value.length(); i++) {
+            int child = Arrays.binarySearch(node.keys, fold(value.charAt(i)));
+
+            if(child < 0)
+                return false;
+
+            node = node.children[child];
+        }
+
+        //Values that end at a node are sorted first in its range
+        return node.from < node.to && values[node.from].length() == value.length();
+    }
+
+    private Node build(int depth, int from, int to) {
+        //Values that end here are sorted first, so skip them
+        int start = from;
+        while(start < to && values[start].length() == depth)
+            start++;
+
+        int count = 0;
+        for(int i = start; i < to; i = next(depth, i, to))
+            count++;
+
+        if(count == 0)
+            return new Node(NO_KEYS, NO_CHILDREN, from, to);
+
+        char[] keys = new char[count];
+        Node[] children = new Node[count];
+
+        int child = 0;
+        for(int i = start; i < to; i = next(depth, i, to)) {
+            keys[child] = fold(values[i].charAt(depth));
+            children[child] = build(depth + 1, i, next(depth, i, to));
+            child++;
+        }
+
+        return new Node(keys, children, from, to);
+    }
+
+    private int next(int depth, int from, int to) {
+        char key = fold(values[from].charAt(depth));
+
+        int i = from + 1;
+        while(i < to && fold(values[i].charAt(depth)) == key)
+            i++;
+
+        return i;
+    }
+
+    /**
+     * Folds the case the same way as {@link String#CASE_INSENSITIVE_ORDER} so the sorted values stay grouped by prefix
+     * @param c char
+     * @return The folded char
+     */
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static final class Node {
+        private final char[] keys;
+        private final Node[] children;
+        private final int from;
+        private final int to;
+
+        private Node(char[] keys, Node[] children, int from, int to) {
+            this.keys = keys;
+            this.children = children;
+            this.from = from;
+            this.to = to;
+        }
+    }
+}
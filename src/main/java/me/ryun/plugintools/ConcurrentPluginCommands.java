@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.TabExecutor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A thread-safe {@link PluginCommands} for when executors are added or removed while commands are called or tab completed on other threads, i.e. Paper's async tab completion.
+ * Everything that reads the list, including calling the commands, only reads the latest immutable snapshot of the executors with a single volatile read,
+ * so reading never locks, waits or builds anything. Modifying is synchronized and builds the new snapshot before publishing it at once,
+ * so add many executors with {@link #addAll(Collection)} rather than one by one. Iterators and sub lists are read-only views of the snapshot when they were created
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class ConcurrentPluginCommands extends PluginCommands {
+    private transient volatile CommandIndex snapshot = CommandIndex.EMPTY;
+
+    /**
+     * Get the latest snapshot of the executors, which every modification already built
+     * @return {@link CommandIndex}
+     */
+    @Override
+    @NotNull CommandIndex index() {
+        return snapshot;
+    }
+
+    @Override
+    public synchronized boolean register(@NotNull TabExecutor executor, @NotNull String name, @NotNull String... aliases) {
+        return super.register(executor, name, aliases);
+    }
+
+    @Override
+    public synchronized boolean add(TabExecutor executor) {
+        boolean result = super.add(executor);
+        publish();
+
+        return result;
+    }
+
+    @Override
+    public synchronized void add(int index, TabExecutor element) {
+        super.add(index, element);
+        publish();
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends TabExecutor> executors) {
+        boolean result = super.addAll(executors);
+        publish();
+
+        return result;
+    }
+
+    @Override
+    public synchronized boolean addAll(int index, Collection<? extends TabExecutor> executors) {
+        boolean result = super.addAll(index, executors);
+        publish();
+
+        return result;
+    }
+
+    @Override
+    public synchronized TabExecutor set(int index, TabExecutor element) {
+        TabExecutor previous = super.set(index, element);
+        publish();
+
+        return previous;
+    }
+
+    @Override
+    public synchronized TabExecutor remove(int index) {
+        TabExecutor previous = super.remove(index);
+        publish();
+
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean remove(Object executor) {
+        boolean result = super.remove(executor);
+        publish();
+
+        return result;
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<?> executors) {
+        boolean result = super.removeAll(executors);
+        publish();
+
+        return result;
+    }
+
+    @Override
+    public synchronized boolean retainAll(Collection<?> executors) {
+        boolean result = super.retainAll(executors);
+        publish();
+
+        return result;
+    }
+
+    @Override
+    public synchronized boolean removeIf(Predicate<? super TabExecutor> filter) {
+        boolean result = super.removeIf(filter);
+        publish();
+
+        return result;
+    }
+
+    @Override
+    protected synchronized void removeRange(int fromIndex, int toIndex) {
+        super.removeRange(fromIndex, toIndex);
+        publish();
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        publish();
+    }
+
+    @Override
+    public synchronized void sort(Comparator<? super TabExecutor> comparator) {
+        super.sort(comparator);
+        publish();
+    }
+
+    @Override
+    public synchronized void replaceAll(UnaryOperator<TabExecutor> operator) {
+        super.replaceAll(operator);
+        publish();
+    }
+
+    @Override
+    public synchronized void ensureCapacity(int minCapacity) {
+        super.ensureCapacity(minCapacity);
+    }
+
+    @Override
+    public synchronized void trimToSize() {
+        super.trimToSize();
+    }
+
+    @Override
+    public synchronized Object clone() {
+        return super.clone();
+    }
+
+    @Override
+    public TabExecutor get(int index) {
+        return index().getExecutors()[index];
+    }
+
+    @Override
+    public int size() {
+        return index().getExecutors().length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index().getExecutors().length == 0;
+    }
+
+    @Override
+    public boolean contains(Object executor) {
+        return indexOf(executor) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object executor) {
+        return view().indexOf(executor);
+    }
+
+    @Override
+    public int lastIndexOf(Object executor) {
+        return view().lastIndexOf(executor);
+    }
+
+    @Override
+    public Object[] toArray() {
+        return index().getExecutors().clone();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] array) {
+        return view().toArray(array);
+    }
+
+    @Override
+    public @NotNull Iterator<TabExecutor> iterator() {
+        return view().iterator();
+    }
+
+    @Override
+    public @NotNull ListIterator<TabExecutor> listIterator() {
+        return view().listIterator();
+    }
+
+    @Override
+    public @NotNull ListIterator<TabExecutor> listIterator(int index) {
+        return view().listIterator(index);
+    }
+
+    @Override
+    public @NotNull List<TabExecutor> subList(int fromIndex, int toIndex) {
+        return view().subList(fromIndex, toIndex);
+    }
+
+    @Override
+    public Spliterator<TabExecutor> spliterator() {
+        return view().spliterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super TabExecutor> action) {
+        for (TabExecutor executor: index().getExecutors())
+            action.accept(executor);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other == this || view().equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return view().hashCode();
+    }
+
+    /**
+     * Builds the snapshot of the executors currently in the list and publishes it. Only called while holding the lock
+     */
+    private void publish() {
+        snapshot = buildIndex();
+    }
+
+    /**
+     * Publishes the snapshot of the deserialized executors, since transient fields are not initialized
+     * @param in {@link ObjectInputStream}
+     * @throws IOException If reading fails
+     * @throws ClassNotFoundException If a class of an executor is missing
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        synchronized (this) {
+            publish();
+        }
+    }
+
+    private List<TabExecutor> view() {
+        return Collections.unmodifiableList(Arrays.asList(index().getExecutors()));
+    }
+}
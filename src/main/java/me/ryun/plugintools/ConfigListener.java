@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import javax.annotation.Nonnull;
+import java.util.Set;
+
+/**
+ * Listens for the changes of a {@link PluginConfig}
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@FunctionalInterface
+public interface ConfigListener {
+    /**
+     * Called after a new {@link ConfigSnapshot} was published. Only called if something actually changed
+     * @param snapshot The new {@link ConfigSnapshot}
+     * @param changedKeys The dotted keys that were added, removed or changed
+     */
+    void onConfigChange(@Nonnull ConfigSnapshot snapshot, @Nonnull Set<String> changedKeys);
+}
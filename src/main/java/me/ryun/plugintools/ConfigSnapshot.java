@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable copy of a config file with every nested section flattened to dotted keys, i.e. {@code database.pool.size}.
+ * Lookups never lock or allocate, so they are safe to do every tick from any thread
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public final class ConfigSnapshot {
+    /**
+     * The snapshot of a missing or empty file
+     */
+    public static final ConfigSnapshot EMPTY = new ConfigSnapshot(Collections.emptyMap());
+
+    private final Map<String, Object> values;
+
+    private ConfigSnapshot(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * Flattens the parsed values of a file
+     * @param parsed The parsed sections
+     * @return {@link ConfigSnapshot}
+     */
+    static @Nonnull ConfigSnapshot of(Map<?, ?> parsed) {
+        if(parsed == null || parsed.isEmpty())
+            return EMPTY;
+
+        Map<String, Object> values = new HashMap<>();
+        flatten("", parsed, values);
+
+        return new ConfigSnapshot(Collections.unmodifiableMap(values));
+    }
+
+    /**
+     * Get the keys that were added, removed or changed since the other snapshot
+     * @param other The older {@link ConfigSnapshot}
+     * @return The changed keys
+     */
+    @Nonnull Set<String> diff(@Nonnull ConfigSnapshot other) {
+        Set<String> changed = new HashSet<>();
+
+        for (Map.Entry<String, Object> entry: values.entrySet()) {
+            if(!Objects.equals(entry.getValue(), other.values.get(entry.getKey())))
+                changed.add(entry.getKey());
+        }
+
+        for (String key: other.values.keySet()) {
+            if(!values.containsKey(key))
+                changed.add(key);
+        }
+
+        return Collections.unmodifiableSet(changed);
+    }
+
+    /**
+     * Does the key exist?
+     * @param key The dotted key
+     * @return boolean
+     */
+    public boolean contains(@Nonnull String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * Get the raw value
+     * @param key The dotted key
+     * @return The value, an unmodifiable {@link List} for lists, or null if it doesn't exist. Sections inside lists are unmodifiable {@link Map}
+     */
+    public Object get(@Nonnull String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Get a value as text
+     * @param key The dotted key
+     * @param defaultValue Returned if the key doesn't exist
+     * @return String
+     */
+    public String getString(@Nonnull String key, String defaultValue) {
+        Object value = values.get(key);
+
+        if(value == null)
+            return defaultValue;
+
+        return value instanceof String ? (String) value : String.valueOf(value);
+    }
+
+    /**
+     * Get a number as an int
+     * @param key The dotted key
+     * @param defaultValue Returned if the key doesn't exist or is not a number
+     * @return int
+     */
+    public int getInt(@Nonnull String key, int defaultValue) {
+        Object value = values.get(key);
+
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    /**
+     * Get a number as a long
+     * @param key The dotted key
+     * @param defaultValue Returned if the key doesn't exist or is not a number
+     * @return long
+     */
+    public long getLong(@Nonnull String key, long defaultValue) {
+        Object value = values.get(key);
+
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    /**
+     * Get a number as a double
+     * @param key The dotted key
+     * @param defaultValue Returned if the key doesn't exist or is not a number
+     * @return double
+     */
+    public double getDouble(@Nonnull String key, double defaultValue) {
+        Object value = values.get(key);
+
+        return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+    }
+
+    /**
+     * Get a boolean
+     * @param key The dotted key
+     * @param defaultValue Returned if the key doesn't exist or is not a boolean
+     * @return boolean
+     */
+    public boolean getBoolean(@Nonnull String key, boolean defaultValue) {
+        Object value = values.get(key);
+
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    /**
+     * Get a list. Each element is kept as it was parsed, except lists and sections inside it are unmodifiable copies
+     * @param key The dotted key
+     * @return The unmodifiable list or an empty list if it doesn't exist or is not a list
+     */
+    public @Nonnull List<?> getList(@Nonnull String key) {
+        Object value = values.get(key);
+
+        return value instanceof List ? (List<?>) value : Collections.emptyList();
+    }
+
+    /**
+     * Get every dotted key
+     * @return The unmodifiable keys
+     */
+    public @Nonnull Set<String> getKeys() {
+        return values.keySet();
+    }
+
+    private static void flatten(String prefix, Map<?, ?> section, Map<String, Object> values) {
+        for (Map.Entry<?, ?> entry: section.entrySet()) {
+            String key = prefix + entry.getKey();
+            Object value = entry.getValue();
+
+            if(value instanceof Map)
+                flatten(key + ".", (Map<?, ?>) value, values);
+            else if(value != null)
+                values.put(key, copy(value));
+        }
+    }
+
+    /**
+     * Copies the lists and sections inside a value, however deep, so nothing of the parser can be modified through the snapshot
+     * @param value The parsed value
+     * @return An unmodifiable {@link List} or {@link Map}, or the value itself
+     */
+    private static Object copy(Object value) {
+        if(value instanceof Map) {
+            Map<Object, Object> section = new LinkedHashMap<>();
+
+            for (Map.Entry<?, ?> entry: ((Map<?, ?>) value).entrySet())
+                section.put(entry.getKey(), copy(entry.getValue()));
+
+            return Collections.unmodifiableMap(section);
+        }
+
+        if(value instanceof Collection) {
+            List<Object> list = new ArrayList<>();
+
+            for (Object element: (Collection<?>) value)
+                list.add(copy(element));
+
+            return Collections.unmodifiableList(list);
+        }
+
+        return value;
+    }
+}
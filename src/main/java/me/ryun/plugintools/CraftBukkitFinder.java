@@ -16,10 +16,22 @@
 package me.ryun.plugintools;
 
 import me.ryun.plugintools.exceptions.UnsupportedCraftBukkitServerException;
+import me.ryun.plugintools.jfr.CraftBukkitScanEvent;
+import me.ryun.plugintools.reflection.JarClassIndex;
 import org.bukkit.Bukkit;
+import org.bukkit.Server;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
 
 /**
- * A class that scans the package names for an available CraftBukkit version with backward and forward compatibility
+ * A class that finds the package name of the available CraftBukkit version with backward and forward compatibility
  */
 public class CraftBukkitFinder {
     /**
@@ -52,39 +64,189 @@ public class CraftBukkitFinder {
      */
     public static final int REVISION_MAXIMUM = 10;
 
-    private static String oldScanResult = "";
+    private static final Path CACHE_FILE = Paths.get("cache", "plugintools-craftbukkit.properties");
+
+    private static volatile String oldScanResult = "";
+    private static int attempts = 0;
 
     /**
-     * Scans the package names for a working classpath by testing it with a known available class
+     * Finds the CraftBukkit package of the running server. The package of the server implementation is used first, which is instant.
+     * If that is not a CraftBukkit package, the result cached by a previous boot of the same server jar is used, then the package names are scanned
+     * for a working classpath by testing it with a known available class, and the result is cached for the next boot
      * @param isLogging If the scan will log if it found a working version or not for each try
-     * @return The package name i.e. org.bukkit.craftbukkit.v1_20_R1
+     * @return The package name i.e. org.bukkit.craftbukkit.v1_20_R1, or org.bukkit.craftbukkit on Paper 1.20.5 and above
      */
     public static String scan(boolean isLogging) {
-        if(!oldScanResult.equals(""))
-            return oldScanResult;
+        String result = oldScanResult;
+        if(!result.equals(""))
+            return result;
+
+        synchronized (CraftBukkitFinder.class) {
+            if(!oldScanResult.equals(""))
+                return oldScanResult;
+
+            ClassLoader loader = serverClassLoader();
+            CraftBukkitScanEvent event = new CraftBukkitScanEvent();
+            String method = "Server";
+
+            event.begin();
+            attempts = 0;
+
+            try {
+                result = resolve(loader);
+                if(result == null) {
+                    method = "Cache";
+                    result = readCache(loader);
+                }
+                if(result == null) {
+                    method = "Scan";
+                    result = bruteForce(loader, isLogging);
+                    writeCache(result);
+                }
+            } finally {
+                event.commit(method, result, attempts);
+            }
+
+            if(isLogging)
+                Bukkit.getLogger().info("Found CraftBukkit: " + result);
+
+            oldScanResult = result;
+
+            return result;
+        }
+    }
+
+    /**
+     * Get the package of the server implementation, which is the CraftBukkit package unless a fork moved it
+     * @return The package name or null if it's not a CraftBukkit package
+     */
+    private static String resolve(ClassLoader loader) {
+        Server server = Bukkit.getServer();
+
+        if(server == null)
+            return null;
+
+        String packageName = server.getClass().getPackageName();
+
+        if(!packageName.equals(baseClassPath) && !packageName.startsWith(baseClassPath + ".v"))
+            return null;
+
+        return exists(loader, packageName) ? packageName : null;
+    }
+
+    private static String bruteForce(ClassLoader loader, boolean isLogging) {
+        JarClassIndex index = JarClassIndex.server();
+
+        //Read the package names straight from the server jar instead of probing every version with the class loader
+        if(index != null) {
+            if(index.hasClass(baseClassPath + "." + testClassName) && exists(loader, baseClassPath))
+                return baseClassPath;
+
+            for (String packageName: index.getVersionedPackages(baseClassPath)) {
+                if(index.hasClass(packageName + "." + testClassName) && exists(loader, packageName))
+                    return packageName;
+            }
+        }
+
+        //Paper 1.20.5 and above no longer relocates CraftBukkit
+        if(exists(loader, baseClassPath))
+            return baseClassPath;
 
         for(int major = MAJOR_MINIMUM; major <= MAJOR_MAXIMUM; major++) {
             for(int minor = MINOR_MINIMUM; minor <= MINOR_MAXIMUM; minor++) {
                 //Revisions always start in 1
                 for(int revision = 1; revision <= REVISION_MAXIMUM; revision++) {
                     String craftBukkitVersion = "v" + major + "_" + minor + "_R" + revision;
-                    try {
-                        Class<?> result = Class.forName(baseClassPath + "." + craftBukkitVersion + "." + testClassName);
 
-                        if(isLogging)
-                            Bukkit.getLogger().info("Found CraftBukkit: " + craftBukkitVersion);
+                    if(exists(loader, baseClassPath + "." + craftBukkitVersion))
+                        return baseClassPath + "." + craftBukkitVersion;
 
-                        oldScanResult = result.getPackageName();
-
-                        return oldScanResult;
-                    } catch (ClassNotFoundException ignored) {
-                        if(isLogging)
-                            Bukkit.getLogger().warning("Tried to search for CraftBukkit: " + craftBukkitVersion + " but failed. Continuing.");
-                    }
+                    if(isLogging)
+                        Bukkit.getLogger().warning("Tried to search for CraftBukkit: " + craftBukkitVersion + " but failed. Continuing.");
                 }
             }
         }
 
         throw new UnsupportedCraftBukkitServerException("Your server uses a Bukkit fork with an incompatible CraftBukkit version or format. This plugin tried to search from v" + CraftBukkitFinder.MAJOR_MINIMUM + "_" + CraftBukkitFinder.MINOR_MINIMUM + "_R1" + " to v" + CraftBukkitFinder.MAJOR_MAXIMUM + "_" + CraftBukkitFinder.MINOR_MAXIMUM + "_R" + CraftBukkitFinder.REVISION_MAXIMUM + ". If you think that this is a mistake, please contact the developer.");
     }
+
+    private static boolean exists(ClassLoader loader, String packageName) {
+        attempts++;
+
+        try {
+            //Don't initialize it, we only need to know it exists
+            Class.forName(packageName + "." + testClassName, false, loader);
+
+            return true;
+        } catch (ClassNotFoundException | LinkageError ignored) {
+            return false;
+        }
+    }
+
+    private static ClassLoader serverClassLoader() {
+        Server server = Bukkit.getServer();
+
+        return server != null ? server.getClass().getClassLoader() : CraftBukkitFinder.class.getClassLoader();
+    }
+
+    /**
+     * Identifies the server jar by its path, size and last modified time, so the cache is ignored once the jar is updated
+     * @return The identity or null if the server jar can't be found
+     */
+    private static String serverJarIdentity() {
+        Path jar = JarClassIndex.serverJar();
+
+        if(jar == null)
+            return null;
+
+        try {
+            return jar.toAbsolutePath() + "|" + Files.size(jar) + "|" + Files.getLastModifiedTime(jar).toMillis();
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    private static String readCache(ClassLoader loader) {
+        String identity = serverJarIdentity();
+
+        if(identity == null || !Files.isRegularFile(CACHE_FILE))
+            return null;
+
+        Properties cache = new Properties();
+
+        try (Reader reader = Files.newBufferedReader(CACHE_FILE, StandardCharsets.UTF_8)) {
+            cache.load(reader);
+        } catch (IOException ignored) {
+            return null;
+        }
+
+        String packageName = cache.getProperty("package");
+
+        if(!identity.equals(cache.getProperty("jar")) || packageName == null)
+            return null;
+
+        //Never trust the cache blindly
+        return exists(loader, packageName) ? packageName : null;
+    }
+
+    private static void writeCache(String packageName) {
+        String identity = serverJarIdentity();
+
+        if(identity == null)
+            return;
+
+        Properties cache = new Properties();
+        cache.setProperty("jar", identity);
+        cache.setProperty("package", packageName);
+
+        try {
+            Files.createDirectories(CACHE_FILE.getParent());
+
+            try (Writer writer = Files.newBufferedWriter(CACHE_FILE, StandardCharsets.UTF_8)) {
+                cache.store(writer, "CraftBukkit package found by RyunPluginTools");
+            }
+        } catch (IOException ignored) {
+            //The cache is only an optimization
+        }
+    }
 }
@@ -0,0 +1,542 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A logger for a {@link JavaPlugin} that follows its {@link PluginEnvironment}. Debug messages are skipped unless the environment is verbose,
+ * before anything is formatted. Messages are put in a bounded lock-free ring buffer and written to the plugin logger by a separate thread,
+ * so logging never makes the server thread wait for the console.
+ * <p>
+ * The {@code {}} in a message are replaced by the arguments on the logging thread, so only pass values that don't change afterwards
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class EnvironmentLogger {
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * What happens to a message when the buffer is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * The new message is dropped
+         */
+        DROP_NEWEST,
+        /**
+         * The oldest message in the buffer is dropped to make room
+         */
+        DROP_OLDEST,
+        /**
+         * The new message is written by the thread that logged it, like a normal logger
+         */
+        CALLER_RUNS
+    }
+
+    private final JavaPlugin plugin;
+    private final Logger logger;
+    private final OverflowPolicy overflowPolicy;
+    private final int mask;
+    private final Slot[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    private final LongAdder dropped;
+    private final Thread drainer;
+    private volatile boolean isClosed;
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     * @param plugin The {@link JavaPlugin} whose logger and {@link PluginEnvironment} are used
+     * @param capacity The amount of messages the buffer holds. A power of two
+     * @param overflowPolicy {@link OverflowPolicy}
+     */
+    private EnvironmentLogger(JavaPlugin plugin, int capacity, OverflowPolicy overflowPolicy) {
+        this(plugin, plugin.getLogger(), plugin.getName(), capacity, overflowPolicy);
+    }
+
+    /**
+     * Package-private so it can be tested without a {@link JavaPlugin}, in which case debug messages are never logged
+     * @param plugin The {@link JavaPlugin} whose {@link PluginEnvironment} is used, or null
+     * @param logger The {@link Logger} the messages are written to
+     * @param name The name of the logging thread is based on it
+     * @param capacity The amount of messages the buffer holds. A power of two
+     * @param overflowPolicy {@link OverflowPolicy}
+     */
+    EnvironmentLogger(JavaPlugin plugin, Logger logger, String name, int capacity, OverflowPolicy overflowPolicy) {
+        this.plugin = plugin;
+        this.logger = logger;
+        this.overflowPolicy = overflowPolicy;
+        this.mask = capacity - 1;
+        this.slots = new Slot[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.dropped = new LongAdder();
+
+        for(int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+
+        this.drainer = new Thread(this::drain, name + "-Logger");
+        this.drainer.setDaemon(true); //Never keep the server from stopping
+        this.drainer.start();
+    }
+
+    /**
+     * Are debug messages logged? Only if the {@link PluginEnvironment} of the plugin is verbose
+     * @return boolean
+     */
+    public boolean isDebugEnabled() {
+        PluginEnvironment environment = plugin != null ? PluginEnvironment.getOrNull(plugin) : null;
+
+        return environment != null && environment.isVerbose();
+    }
+
+    /**
+     * Logs a debug message if the {@link PluginEnvironment} is verbose
+     * @param message The message
+     */
+    public void debug(@Nonnull String message) {
+        if(isDebugEnabled())
+            log(Level.INFO, true, message, null, null, null, 0, null);
+    }
+
+    /**
+     * Logs a debug message if the {@link PluginEnvironment} is verbose
+     * @param message The message with one {@code {}}
+     * @param argument Replaces the {@code {}}
+     */
+    public void debug(@Nonnull String message, Object argument) {
+        if(isDebugEnabled())
+            log(Level.INFO, true, message, argument, null, null, 1, null);
+    }
+
+    /**
+     * Logs a debug message if the {@link PluginEnvironment} is verbose
+     * @param message The message with two {@code {}}
+     * @param first Replaces the first {@code {}}
+     * @param second Replaces the second {@code {}}
+     */
+    public void debug(@Nonnull String message, Object first, Object second) {
+        if(isDebugEnabled())
+            log(Level.INFO, true, message, first, second, null, 2, null);
+    }
+
+    /**
+     * Logs a debug message if the {@link PluginEnvironment} is verbose
+     * @param message The message with three {@code {}}
+     * @param first Replaces the first {@code {}}
+     * @param second Replaces the second {@code {}}
+     * @param third Replaces the third {@code {}}
+     */
+    public void debug(@Nonnull String message, Object first, Object second, Object third) {
+        if(isDebugEnabled())
+            log(Level.INFO, true, message, first, second, third, 3, null);
+    }
+
+    /**
+     * Logs a debug message if the {@link PluginEnvironment} is verbose. The {@link Supplier} is not even called otherwise
+     * @param message {@link Supplier}
+     */
+    public void debug(@Nonnull Supplier<String> message) {
+        if(isDebugEnabled())
+            log(Level.INFO, true, message.get(), null, null, null, 0, null);
+    }
+
+    /**
+     * Logs a debug message and the stack trace if the {@link PluginEnvironment} is verbose
+     * @param message The message
+     * @param thrown {@link Throwable}
+     */
+    public void debug(@Nonnull String message, @Nonnull Throwable thrown) {
+        if(isDebugEnabled())
+            log(Level.INFO, true, message, null, null, null, 0, thrown);
+    }
+
+    /**
+     * Logs an info message
+     * @param message The message
+     */
+    public void info(@Nonnull String message) {
+        log(Level.INFO, false, message, null, null, null, 0, null);
+    }
+
+    /**
+     * Logs an info message
+     * @param message The message with one {@code {}}
+     * @param argument Replaces the {@code {}}
+     */
+    public void info(@Nonnull String message, Object argument) {
+        log(Level.INFO, false, message, argument, null, null, 1, null);
+    }
+
+    /**
+     * Logs an info message
+     * @param message The message with two {@code {}}
+     * @param first Replaces the first {@code {}}
+     * @param second Replaces the second {@code {}}
+     */
+    public void info(@Nonnull String message, Object first, Object second) {
+        log(Level.INFO, false, message, first, second, null, 2, null);
+    }
+
+    /**
+     * Logs a warning
+     * @param message The message
+     */
+    public void warning(@Nonnull String message) {
+        log(Level.WARNING, false, message, null, null, null, 0, null);
+    }
+
+    /**
+     * Logs a warning
+     * @param message The message with one {@code {}}
+     * @param argument Replaces the {@code {}}
+     */
+    public void warning(@Nonnull String message, Object argument) {
+        log(Level.WARNING, false, message, argument, null, null, 1, null);
+    }
+
+    /**
+     * Logs a warning and the stack trace
+     * @param message The message
+     * @param thrown {@link Throwable}
+     */
+    public void warning(@Nonnull String message, @Nonnull Throwable thrown) {
+        log(Level.WARNING, false, message, null, null, null, 0, thrown);
+    }
+
+    /**
+     * Logs an error
+     * @param message The message
+     */
+    public void severe(@Nonnull String message) {
+        log(Level.SEVERE, false, message, null, null, null, 0, null);
+    }
+
+    /**
+     * Logs an error
+     * @param message The message with one {@code {}}
+     * @param argument Replaces the {@code {}}
+     */
+    public void severe(@Nonnull String message, Object argument) {
+        log(Level.SEVERE, false, message, argument, null, null, 1, null);
+    }
+
+    /**
+     * Logs an error and the stack trace
+     * @param message The message
+     * @param thrown {@link Throwable}
+     */
+    public void severe(@Nonnull String message, @Nonnull Throwable thrown) {
+        log(Level.SEVERE, false, message, null, null, null, 0, thrown);
+    }
+
+    /**
+     * Get the amount of messages dropped because the buffer was full
+     * @return long
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Get the amount of messages waiting to be written
+     * @return int
+     */
+    public int getPending() {
+        return (int) Math.max(tail.get() - head.get(), 0);
+    }
+
+    /**
+     * Get the {@link OverflowPolicy}
+     * @return {@link OverflowPolicy}
+     */
+    public @Nonnull OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Writes the remaining messages and stops the logging thread. Messages logged afterwards are written right away. Call this in {@link JavaPlugin#onDisable()}
+     */
+    public void close() {
+        isClosed = true;
+        LockSupport.unpark(drainer);
+
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+
+        //Messages that were logged while it was closing
+        while(poll(true));
+    }
+
+    private void log(Level level, boolean isDebug, String message, Object first, Object second, Object third, int arguments, Throwable thrown) {
+        if(isClosed) {
+            write(level, isDebug, message, first, second, third, arguments, thrown);
+            return;
+        }
+
+        while(!offer(level, isDebug, message, first, second, third, arguments, thrown)) {
+            if(overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                dropped.increment();
+                return;
+            }
+
+            if(overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+                write(level, isDebug, message, first, second, third, arguments, thrown);
+                return;
+            }
+
+            //Dropping the oldest message can fail if the logging thread took it first, which also made room
+            if(poll(false))
+                dropped.increment();
+        }
+    }
+
+    /**
+     * Claims the next free slot, fills it then publishes it. This is the bounded queue of Dmitry Vyukov, with the slots allocated up front
+     */
+    private boolean offer(Level level, boolean isDebug, String message, Object first, Object second, Object third, int arguments, Throwable thrown) {
+        long position = tail.get();
+
+        while(true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+
+            if(difference == 0) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    slots[index].set(level, isDebug, message, first, second, third, arguments, thrown);
+                    sequences.set(index, position + 1);
+
+                    return true;
+                }
+
+                position = tail.get();
+            } else if(difference < 0) {
+                return false; //Full
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest published slot, writes it if asked to, then frees it
+     * @return If a slot was taken
+     */
+    private boolean poll(boolean isWriting) {
+        long position = head.get();
+
+        while(true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+
+            if(difference == 0) {
+                if(head.compareAndSet(position, position + 1)) {
+                    Slot slot = slots[index];
+                    Level level = slot.level;
+                    boolean isDebug = slot.isDebug;
+                    String message = slot.message;
+                    Object first = slot.first;
+                    Object second = slot.second;
+                    Object third = slot.third;
+                    int arguments = slot.arguments;
+                    Throwable thrown = slot.thrown;
+
+                    //Free the slot before writing, so a slow handler doesn't make the buffer smaller
+                    slot.clear();
+                    sequences.set(index, position + mask + 1);
+
+                    if(isWriting)
+                        write(level, isDebug, message, first, second, third, arguments, thrown);
+
+                    return true;
+                }
+
+                position = head.get();
+            } else if(difference < 0) {
+                return false; //Empty
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    private void drain() {
+        while(!isClosed) {
+            if(!poll(true))
+                LockSupport.parkNanos(this, IDLE_NANOS);
+        }
+
+        //Write whatever is left
+        while(poll(true));
+    }
+
+    private void write(Level level, boolean isDebug, String message, Object first, Object second, Object third, int arguments, Throwable thrown) {
+        try {
+            String formatted = format(isDebug, message, first, second, third, arguments);
+
+            if(thrown != null)
+                logger.log(level, formatted, thrown);
+            else
+                logger.log(level, formatted);
+        } catch (RuntimeException ignored) {
+            //A broken toString() should never kill the logging thread
+        }
+    }
+
+    private static String format(boolean isDebug, String message, Object first, Object second, Object third, int arguments) {
+        if(arguments == 0 && !isDebug)
+            return message;
+
+        StringBuilder builder = new StringBuilder(message.length() + 32);
+
+        if(isDebug)
+            builder.append("[Debug] ");
+
+        int start = 0;
+
+        for(int i = 0; i < arguments; i++) {
+            int placeholder = message.indexOf("{}", start);
+
+            if(placeholder < 0)
+                break;
+
+            builder.append(message, start, placeholder).append(i == 0 ? first : i == 1 ? second : third);
+            start = placeholder + 2;
+        }
+
+        return builder.append(message, start, message.length()).toString();
+    }
+
+    /**
+     * A message waiting in the buffer. Reused so logging never allocates one
+     */
+    private static final class Slot {
+        private Level level;
+        private boolean isDebug;
+        private String message;
+        private Object first;
+        private Object second;
+        private Object third;
+        private int arguments;
+        private Throwable thrown;
+
+        private void set(Level level, boolean isDebug, String message, Object first, Object second, Object third, int arguments, Throwable thrown) {
+            this.level = level;
+            this.isDebug = isDebug;
+            this.message = message;
+            this.first = first;
+            this.second = second;
+            this.third = third;
+            this.arguments = arguments;
+            this.thrown = thrown;
+        }
+
+        private void clear() {
+            set(null, false, null, null, null, null, 0, null);
+        }
+    }
+
+    /**
+     * The Factory for setting the Environment Logger
+     */
+    public static class Factory {
+        private JavaPlugin plugin;
+        private int capacity;
+        private OverflowPolicy overflowPolicy;
+
+        /**
+         * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
+         */
+        private Factory() {
+            plugin = null;
+            capacity = 1024;
+            overflowPolicy = OverflowPolicy.DROP_NEWEST;
+        }
+
+        /**
+         * Make a new {@link Factory} instance
+         * @return {@link Factory}
+         */
+        public static Factory make() {
+            return new Factory();
+        }
+
+        /**
+         * Sets the {@link JavaPlugin} value
+         * @param value {@link JavaPlugin}
+         * @return The same instance
+         */
+        public Factory setPlugin(@Nonnull JavaPlugin value) {
+            this.plugin = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the amount of messages the buffer holds. Rounded up to a power of two. Defaults to 1024
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setCapacity(int value) {
+            this.capacity = value;
+
+            return this;
+        }
+
+        /**
+         * Sets what happens to a message when the buffer is full. Defaults to {@link OverflowPolicy#DROP_NEWEST}
+         * @param value {@link OverflowPolicy}
+         * @return The same instance
+         */
+        public Factory setOverflowPolicy(@Nonnull OverflowPolicy value) {
+            this.overflowPolicy = value;
+
+            return this;
+        }
+
+        /**
+         * Creates the new {@link EnvironmentLogger} instance and starts its logging thread
+         * @return {@link EnvironmentLogger}
+         */
+        public EnvironmentLogger create() {
+            Objects.requireNonNull(plugin, "Plugin value has to be set!");
+            Objects.requireNonNull(overflowPolicy, "Overflow policy value has to be set!");
+
+            if(capacity < 2 || capacity > 1 << 30)
+                throw new IllegalArgumentException("Capacity has to be between 2 and 2^30!");
+
+            return new EnvironmentLogger(plugin, Integer.highestOneBit(capacity - 1) << 1, overflowPolicy);
+        }
+    }
+}
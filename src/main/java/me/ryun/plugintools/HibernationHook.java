@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+/**
+ * Called by {@link ServerHibernation} so a plugin can pause its own repeating tasks while nobody is online
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public interface HibernationHook {
+    /**
+     * Called on the server thread when the server starts hibernating. Pause or slow down anything that doesn't matter without players
+     */
+    void onHibernate();
+
+    /**
+     * Called on the server thread when a player joins a hibernating server. Resume whatever was paused
+     */
+    void onWake();
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds. Recording never allocates or blocks, so it can be left on in production.
+ * Every power of two is split into 8 buckets, so a percentile is at most 12.5% higher than the real value
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public final class LatencyRecorder {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one invocation
+     * @param nanos How long the invocation took
+     */
+    public void record(long nanos) {
+        if(nanos < 0)
+            nanos = 0;
+
+        buckets.incrementAndGet(bucket(nanos));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+
+        //Only contend when there is a new maximum
+        long current = max.get();
+        while(nanos > current && !max.compareAndSet(current, nanos))
+            current = max.get();
+    }
+
+    /**
+     * Get the amount of recorded invocations
+     * @return long
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Get the sum of all recorded latencies
+     * @return Nanoseconds
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Get the highest recorded latency
+     * @return Nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the latency that the given percentage of invocations were faster than or equal to
+     * @param percentile From 0 to 100, i.e. 99 for p99
+     * @return Nanoseconds, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long recorded = 0;
+
+        for(int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            recorded += snapshot[i];
+        }
+
+        if(recorded == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(recorded * percentile / 100.0));
+        long seen = 0;
+
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+
+            if(seen >= rank)
+                return Math.min(upperBound(i), getMax());
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Forgets everything that was recorded
+     */
+    public void reset() {
+        for(int i = 0; i < BUCKETS; i++)
+            buckets.set(i, 0);
+
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    private static int bucket(long nanos) {
+        if(nanos < SUB_BUCKETS)
+            return (int) nanos;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if(bucket < SUB_BUCKETS)
+            return bucket;
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+
+        return ((SUB_BUCKETS | sub) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the permissions of each player, so executors checking the same permissions on every command and tab completion
+ * don't go through the permission plugin every time. Each permission is given a number, and the decisions of a player are kept as 2 bits per number.
+ * Register it as a {@link Listener} to forget the decisions of players when they quit, change worlds or get their commands resent,
+ * which permission plugins do when the permissions of a player change. Decisions are also forgotten after a time to live.
+ * The numbers are shared by every cache, so {@link PluginCommands} and compiled commands can look them up once, before there is a cache
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class PermissionCache implements Listener {
+    private static final int UNKNOWN = 0;
+    private static final int DENIED = 1;
+    private static final int GRANTED = 3;
+
+    private static final ConcurrentHashMap<String, Integer> nodes = new ConcurrentHashMap<>();
+    private static volatile String[] permissions = new String[0];
+
+    private final long timeToLive;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<UUID, Decisions> senders = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     * @param timeToLive How long the decisions of a player are kept in nanoseconds
+     * @param clock The current time in nanoseconds
+     */
+    private PermissionCache(long timeToLive, LongSupplier clock) {
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the number of a permission, giving it the next number if it doesn't have one yet. Keep the number to skip looking it up on every check
+     * @param permission The permission
+     * @return int
+     */
+    public static int getNode(@NotNull String permission) {
+        Integer node = nodes.get(permission);
+
+        if(node != null)
+            return node;
+
+        synchronized (nodes) {
+            node = nodes.get(permission);
+
+            if(node != null)
+                return node;
+
+            String[] grown = Arrays.copyOf(permissions, permissions.length + 1);
+            grown[permissions.length] = permission;
+
+            //Publish the permission before its number so it can always be looked up
+            permissions = grown;
+            nodes.put(permission, grown.length - 1);
+
+            return grown.length - 1;
+        }
+    }
+
+    /**
+     * Get the permission of a number
+     * @param node The number of the permission from {@link #getNode(String)}
+     * @return The permission
+     */
+    public static @NotNull String getPermission(int node) {
+        return permissions[node];
+    }
+
+    /**
+     * Does the sender have the permission? Only the decisions of players are remembered, every other sender is asked every time.
+     * Every permission checked gets a number that is never forgotten, so don't build permissions from what players type
+     * @param sender {@link CommandSender}
+     * @param permission The permission
+     * @return boolean
+     */
+    public boolean hasPermission(@NotNull CommandSender sender, @NotNull String permission) {
+        if(!(sender instanceof Player))
+            return sender.hasPermission(permission);
+
+        return hasPermission(sender, getNode(permission));
+    }
+
+    /**
+     * Does the sender have the permission? Only the decisions of players are remembered, every other sender is asked every time
+     * @param sender {@link CommandSender}
+     * @param node The number of the permission from {@link #getNode(String)}
+     * @return boolean
+     */
+    public boolean hasPermission(@NotNull CommandSender sender, int node) {
+        String permission = permissions[node];
+
+        if(!(sender instanceof Player))
+            return sender.hasPermission(permission);
+
+        Player player = (Player) sender;
+        long now = clock.getAsLong();
+        Decisions decisions = senders.get(player.getUniqueId());
+
+        if(decisions == null || now - decisions.created >= timeToLive) {
+            decisions = new Decisions(now, permissions.length);
+
+            //Never remember a player that already left
+            if(player.isOnline())
+                senders.put(player.getUniqueId(), decisions);
+        }
+
+        int decision = decisions.get(node);
+
+        if(decision != UNKNOWN) {
+            hits.increment();
+            return decision == GRANTED;
+        }
+
+        misses.increment();
+
+        boolean isGranted = player.hasPermission(permission);
+        decisions.set(node, isGranted ? GRANTED : DENIED);
+
+        return isGranted;
+    }
+
+    /**
+     * Forgets every decision of the player. Call this if you changed their permissions yourself
+     * @param player {@link Player}
+     */
+    public void invalidate(@NotNull Player player) {
+        senders.remove(player.getUniqueId());
+    }
+
+    /**
+     * Forgets every decision of every player
+     */
+    public void invalidateAll() {
+        senders.clear();
+    }
+
+    /**
+     * Forgets the decisions of the player that quit
+     * @param event {@link PlayerQuitEvent} from the {@link EventHandler}
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuitEvent(@NotNull PlayerQuitEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    /**
+     * Forgets the decisions of the player that changed worlds, since permissions can be different in each world
+     * @param event {@link PlayerChangedWorldEvent} from the {@link EventHandler}
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorldEvent(@NotNull PlayerChangedWorldEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    /**
+     * Forgets the decisions of the player whose commands are resent, which happens when their permissions change
+     * @param event {@link PlayerCommandSendEvent} from the {@link EventHandler}
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerCommandSendEvent(@NotNull PlayerCommandSendEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    /**
+     * Get the amount of players whose decisions are remembered, including the expired ones not yet replaced
+     * @return int
+     */
+    public int size() {
+        return senders.size();
+    }
+
+    /**
+     * Get how many times a remembered decision was returned
+     * @return long
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get how many times the permission plugin had to be asked
+     * @return long
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * The decisions of a player, 32 permissions per word
+     */
+    private static final class Decisions {
+        private final long created;
+        private volatile AtomicLongArray words;
+
+        private Decisions(long created, int permissions) {
+            this.created = created;
+            this.words = new AtomicLongArray((permissions >>> 5) + 1);
+        }
+
+        private int get(int node) {
+            AtomicLongArray words = this.words;
+            int index = node >>> 5;
+
+            if(index >= words.length())
+                return UNKNOWN;
+
+            return (int) (words.get(index) >>> ((node & 31) << 1)) & 3;
+        }
+
+        private void set(int node, int decision) {
+            AtomicLongArray words = this.words;
+            int index = node >>> 5;
+
+            if(index >= words.length())
+                words = grow(index + 1);
+
+            words.accumulateAndGet(index, (long) decision << ((node & 31) << 1), (word, bits) -> word | bits);
+        }
+
+        /**
+         * Copies the words into a bigger array. A decision set on the old array while copying is lost, which only means asking again
+         */
+        private synchronized AtomicLongArray grow(int length) {
+            AtomicLongArray words = this.words;
+
+            if(words.length() >= length)
+                return words;
+
+            AtomicLongArray grown = new AtomicLongArray(Math.max(length, words.length() * 2));
+
+            for(int i = 0; i < words.length(); i++)
+                grown.set(i, words.get(i));
+
+            this.words = grown;
+
+            return grown;
+        }
+    }
+
+    /**
+     * The Factory for setting the Permission Cache
+     */
+    public static class Factory {
+        private Duration timeToLive;
+        private LongSupplier clock;
+
+        /**
+         * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
+         */
+        private Factory() {
+            timeToLive = Duration.ofSeconds(30);
+            clock = System::nanoTime;
+        }
+
+        /**
+         * Make a new {@link Factory} instance
+         * @return {@link Factory}
+         */
+        public static Factory make() {
+            return new Factory();
+        }
+
+        /**
+         * Sets how long the decisions of a player are remembered, in case their permissions change without any event. Defaults to 30 seconds
+         * @param value {@link Duration}
+         * @return The same instance
+         */
+        public Factory setTimeToLive(@NotNull Duration value) {
+            this.timeToLive = value;
+
+            return this;
+        }
+
+        /**
+         * Sets where the current time in nanoseconds comes from. Package-private, since only the tests need another clock. Defaults to {@link System#nanoTime()}
+         * @param value {@link LongSupplier}
+         * @return The same instance
+         */
+        Factory setClock(@NotNull LongSupplier value) {
+            this.clock = value;
+
+            return this;
+        }
+
+        /**
+         * Creates the new {@link PermissionCache} instance
+         * @return {@link PermissionCache}
+         */
+        public PermissionCache create() {
+            if(timeToLive.isNegative() || timeToLive.isZero())
+                throw new IllegalArgumentException("Time to live has to be positive!");
+
+            return new PermissionCache(timeToLive.toNanos(), clock);
+        }
+    }
+}
@@ -15,6 +15,8 @@
 
 package me.ryun.plugintools;
 
+import me.ryun.plugintools.jfr.CommandDispatchEvent;
+import me.ryun.plugintools.jfr.TabCompleteEvent;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -22,16 +24,169 @@ import org.bukkit.command.TabExecutor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.time.Duration;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
 
 /**
- * A call list for all of the {@link TabExecutor} in the {@link org.bukkit.plugin.java.JavaPlugin}
+ * A call list for all of the {@link TabExecutor} in the {@link org.bukkit.plugin.java.JavaPlugin}.
+ * This list is not thread-safe, so use {@link ConcurrentPluginCommands} if it is modified while commands can be tab completed outside the server thread
  * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
  */
 public class PluginCommands extends ArrayList<TabExecutor> {
+    private transient Map<TabExecutor, String[]> names = new IdentityHashMap<>();
+    private transient volatile Indexed indexed = new Indexed(CommandIndex.EMPTY, 0);
+    private transient int indexVersion = 0;
+    private transient AsyncDispatcher asyncDispatcher = null;
+    private transient CommandTimings timings = null;
+    private transient TabCompletionCache tabCompletionCache = null;
+    private transient WorkScheduler workScheduler = null;
+    private transient CommandRateLimiter rateLimiter = null;
+    private transient PermissionCache permissionCache = null;
+
+    /**
+     * Adds a {@link TabExecutor} that only receives the commands with the given name or aliases, so it is skipped for every other command.
+     * Executors added with {@link #add(Object)} still receive every command, in the order they were added
+     * @param executor {@link TabExecutor}
+     * @param name The name of the command as defined in the plugin.yml
+     * @param aliases The aliases of the command
+     * @return If the executor was added
+     */
+    public boolean register(@NotNull TabExecutor executor, @NotNull String name, @NotNull String... aliases) {
+        String[] executorNames = new String[aliases.length + 1];
+
+        executorNames[0] = CommandIndex.key(name);
+        for(int i = 0; i < aliases.length; i++)
+            executorNames[i + 1] = CommandIndex.key(aliases[i]);
+
+        names.put(executor, executorNames);
+        indexVersion++;
+
+        return add(executor);
+    }
+
+    /**
+     * Replaces the {@link TabExecutor} at the index. Like {@link ArrayList#set(int, Object)} it is not a structural modification,
+     * so iterators keep working, but the command index is still rebuilt
+     * @param index The position of the executor
+     * @param element {@link TabExecutor}
+     * @return The executor that was replaced
+     */
+    @Override
+    public TabExecutor set(int index, TabExecutor element) {
+        TabExecutor previous = super.set(index, element);
+        indexVersion++;
+
+        return previous;
+    }
+
+    /**
+     * Get a view of a part of the list. Unlike the view of {@link ArrayList}, replacing an executor through it goes through {@link #set(int, TabExecutor)},
+     * so the command index is rebuilt
+     * @param fromIndex The first position, inclusive
+     * @param toIndex The last position, exclusive
+     * @return The view
+     */
+    @Override
+    public @NotNull List<TabExecutor> subList(int fromIndex, int toIndex) {
+        return new AbstractList<TabExecutor>() {
+            @Override
+            public TabExecutor get(int index) {
+                return PluginCommands.this.get(index);
+            }
+
+            @Override
+            public TabExecutor set(int index, TabExecutor element) {
+                return PluginCommands.this.set(index, element);
+            }
+
+            @Override
+            public void add(int index, TabExecutor element) {
+                PluginCommands.this.add(index, element);
+            }
+
+            @Override
+            public TabExecutor remove(int index) {
+                return PluginCommands.this.remove(index);
+            }
+
+            @Override
+            public int size() {
+                return PluginCommands.this.size();
+            }
+        }.subList(fromIndex, toIndex);
+    }
+
+    /**
+     * Copies the list along with the names each executor is registered under
+     * @return {@link PluginCommands}
+     */
+    @Override
+    public Object clone() {
+        PluginCommands clone = (PluginCommands) super.clone();
+        clone.names = new IdentityHashMap<>(names);
+
+        return clone;
+    }
+
+    /**
+     * Restores the transient fields after deserializing. The names executors were registered under are not serialized,
+     * so they receive every command until registered again
+     * @param in {@link ObjectInputStream}
+     * @throws IOException If reading fails
+     * @throws ClassNotFoundException If a class of an executor is missing
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        names = new IdentityHashMap<>();
+        indexed = new Indexed(CommandIndex.EMPTY, -1); //Never matches, so the index is built on the first call
+    }
+
+    /**
+     * Get the index of the executors, rebuilding it if the list was modified since the last call.
+     * Structural modifications are tracked by {@code modCount}, and replacing or registering executors by a separate version, so {@code modCount} keeps meaning what it does for {@link ArrayList}.
+     * The index is handed over through a volatile field, so reading it from an async tab completion is safe as long as nothing modifies the list at the same time.
+     * Two threads might both rebuild it, which only costs time. Use {@link ConcurrentPluginCommands} if the list is modified while it can be read on other threads
+     * @return {@link CommandIndex}
+     */
+    @NotNull CommandIndex index() {
+        long version = ((long) modCount << 32) | (indexVersion & 0xFFFFFFFFL);
+        Indexed current = indexed;
+
+        if(current.version != version) {
+            current = new Indexed(buildIndex(), version);
+            indexed = current;
+        }
+
+        return current.index;
+    }
+
     /**
-     * Calls each {@link TabExecutor#onCommand(CommandSender, Command, String, String[])} by order and stops when one returns true, effectively prioritizing by order
+     * Builds a new index from the executors currently in the list
+     * @return {@link CommandIndex}
+     */
+    @NotNull CommandIndex buildIndex() {
+        CommandIndex built = new CommandIndex(super.toArray(new TabExecutor[0]), names);
+        names = new IdentityHashMap<>(built.getNames()); //Forget the names of removed executors
+
+        return built;
+    }
+
+    /**
+     * Calls each {@link TabExecutor#onCommand(CommandSender, Command, String, String[])} registered for the command by order and stops when one returns true, effectively prioritizing by order
      * @param sender {@link CommandSender}
      * @param command {@link Command}
      * @param label {@link String}
@@ -39,10 +194,66 @@ public class PluginCommands extends ArrayList<TabExecutor> {
      * @return If a command was executed
      */
     public boolean call(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        CommandRateLimiter rateLimiter = this.rateLimiter;
+
+        if(rateLimiter == null)
+            return dispatch(sender, command, label, args);
+
+        return rateLimiter.call(sender, command, () -> dispatch(sender, command, label, args));
+    }
+
+    private boolean dispatch(CommandSender sender, Command command, String label, String[] args) {
+        CommandIndex index = index();
         boolean result = false;
 
-        for (TabExecutor executor: this) {
-            result = executor.onCommand(sender, command, label, args);
+        for (TabExecutor executor: index.get(command, label)) {
+            result = execute(index, executor, sender, command, label, args);
+
+            if(result)
+                break;
+        }
+
+        return result;
+    }
+
+    /**
+     * Same as {@link #call(CommandSender, Command, String, String[])} except that each {@link AsyncTabExecutor} that doesn't require the main thread
+     * is called by the {@link AsyncDispatcher} instead. Since its result can't be waited for, it counts as executed and stops the call,
+     * so register it with {@link #register(TabExecutor, String, String...)} to only receive its own commands.
+     * If it returns false later, the usage message is sent on the server thread just like Bukkit does.
+     * If every thread of the {@link AsyncDispatcher} is busy, the executor is called right away instead
+     * @param sender {@link CommandSender}
+     * @param command {@link Command}
+     * @param label {@link String}
+     * @param args {@link String[]}
+     * @return If a command was executed or sent to the {@link AsyncDispatcher}
+     */
+    public boolean callAsync(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        AsyncDispatcher dispatcher = asyncDispatcher;
+
+        //Fail-fast
+        Objects.requireNonNull(dispatcher, "Async Dispatcher not set!");
+
+        CommandRateLimiter rateLimiter = this.rateLimiter;
+
+        if(rateLimiter == null)
+            return dispatchAsync(dispatcher, sender, command, label, args);
+
+        return rateLimiter.call(sender, command, () -> dispatchAsync(dispatcher, sender, command, label, args));
+    }
+
+    private boolean dispatchAsync(AsyncDispatcher dispatcher, CommandSender sender, Command command, String label, String[] args) {
+        CommandIndex index = index();
+        boolean result = false;
+
+        for (TabExecutor executor: index.get(command, label)) {
+            if(!isPermitted(index, executor, sender))
+                continue;
+
+            if(isThreadSafe(executor) && dispatcher.execute(() -> callOffMainThread(dispatcher, executor, sender, command, label, args)))
+                return true;
+
+            result = invoke(executor, sender, command, label, args);
 
             if(result)
                 break;
@@ -52,7 +263,128 @@ public class PluginCommands extends ArrayList<TabExecutor> {
     }
 
     /**
-     * Calls each {@link TabExecutor#onCommand(CommandSender, Command, String, String[])} by order without stopping
+     * Sets the {@link CommandTimings} that records every executor called by this list. Set to null to stop recording
+     * @param timings {@link CommandTimings}
+     */
+    public void setTimings(@Nullable CommandTimings timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * Get the {@link CommandTimings} that records every executor called by this list
+     * @return {@link CommandTimings} or null if not set
+     */
+    public @Nullable CommandTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * Sets the {@link TabCompletionCache} that remembers the tab completions of each {@link CachedTabCompletion} executor. Set to null to stop caching
+     * @param tabCompletionCache {@link TabCompletionCache}
+     */
+    public void setTabCompletionCache(@Nullable TabCompletionCache tabCompletionCache) {
+        this.tabCompletionCache = tabCompletionCache;
+    }
+
+    /**
+     * Get the {@link TabCompletionCache} that remembers the tab completions of each {@link CachedTabCompletion} executor
+     * @return {@link TabCompletionCache} or null if not set
+     */
+    public @Nullable TabCompletionCache getTabCompletionCache() {
+        return tabCompletionCache;
+    }
+
+    /**
+     * Sets the {@link AsyncDispatcher} used by {@link #callAsync(CommandSender, Command, String, String[])}
+     * @param asyncDispatcher {@link AsyncDispatcher}
+     */
+    public void setAsyncDispatcher(@Nullable AsyncDispatcher asyncDispatcher) {
+        this.asyncDispatcher = asyncDispatcher;
+    }
+
+    /**
+     * Get the {@link AsyncDispatcher} used by {@link #callAsync(CommandSender, Command, String, String[])}
+     * @return {@link AsyncDispatcher} or null if not set
+     */
+    public @Nullable AsyncDispatcher getAsyncDispatcher() {
+        return asyncDispatcher;
+    }
+
+    /**
+     * Sets the {@link WorkScheduler} that executors holding this list can queue long-running main thread work on, instead of doing it all in one tick
+     * @param workScheduler {@link WorkScheduler}
+     */
+    public void setWorkScheduler(@Nullable WorkScheduler workScheduler) {
+        this.workScheduler = workScheduler;
+    }
+
+    /**
+     * Get the {@link WorkScheduler} that executors holding this list can queue long-running main thread work on
+     * @return {@link WorkScheduler} or null if not set
+     */
+    public @Nullable WorkScheduler getWorkScheduler() {
+        return workScheduler;
+    }
+
+    /**
+     * Sets the {@link CommandRateLimiter} every command and tab completion of a player goes through before reaching the executors. Set to null to stop limiting
+     * @param rateLimiter {@link CommandRateLimiter}
+     */
+    public void setRateLimiter(@Nullable CommandRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Get the {@link CommandRateLimiter} every command and tab completion of a player goes through
+     * @return {@link CommandRateLimiter} or null if not set
+     */
+    public @Nullable CommandRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Sets the {@link PermissionCache} used to skip each {@link RequiredPermission} executor, which executors holding this list can also check their own permissions with.
+     * Set to null to ask the sender every time
+     * @param permissionCache {@link PermissionCache}
+     */
+    public void setPermissionCache(@Nullable PermissionCache permissionCache) {
+        this.permissionCache = permissionCache;
+    }
+
+    /**
+     * Get the {@link PermissionCache} used to skip each {@link RequiredPermission} executor
+     * @return {@link PermissionCache} or null if not set
+     */
+    public @Nullable PermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
+    /**
+     * Does the sender have the permission? Checked with the {@link PermissionCache} if one is set
+     * @param sender {@link CommandSender}
+     * @param permission The permission
+     * @return boolean
+     */
+    public boolean hasPermission(@NotNull CommandSender sender, @NotNull String permission) {
+        PermissionCache permissionCache = this.permissionCache;
+
+        return permissionCache != null ? permissionCache.hasPermission(sender, permission) : sender.hasPermission(permission);
+    }
+
+    /**
+     * Does the sender have the permission? Checked with the {@link PermissionCache} if one is set, without looking up the number of the permission again
+     * @param sender {@link CommandSender}
+     * @param node The number of the permission from {@link PermissionCache#getNode(String)}
+     * @return boolean
+     */
+    public boolean hasPermission(@NotNull CommandSender sender, int node) {
+        PermissionCache permissionCache = this.permissionCache;
+
+        return permissionCache != null ? permissionCache.hasPermission(sender, node) : sender.hasPermission(PermissionCache.getPermission(node));
+    }
+
+    /**
+     * Calls each {@link TabExecutor#onCommand(CommandSender, Command, String, String[])} registered for the command by order without stopping
      * @param sender {@link CommandSender}
      * @param command {@link Command}
      * @param label {@link String}
@@ -60,17 +392,29 @@ public class PluginCommands extends ArrayList<TabExecutor> {
      * @return If a command was executed
      */
     public boolean callAll(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        CommandRateLimiter rateLimiter = this.rateLimiter;
+
+        if(rateLimiter == null)
+            return dispatchAll(sender, command, label, args);
+
+        return rateLimiter.call(sender, command, () -> dispatchAll(sender, command, label, args));
+    }
+
+    private boolean dispatchAll(CommandSender sender, Command command, String label, String[] args) {
+        CommandIndex index = index();
         boolean result = false;
 
-        for (TabExecutor executor: this) {
-            result |= executor.onCommand(sender, command, label, args);
+        for (TabExecutor executor: index.get(command, label)) {
+            result |= execute(index, executor, sender, command, label, args);
         }
 
         return result;
     }
 
     /**
-     * Calls each {@link TabExecutor#onTabComplete(CommandSender, Command, String, String[])} by order and stops when one returns values, effectively prioritizing by order
+     * Calls each {@link TabExecutor#onTabComplete(CommandSender, Command, String, String[])} registered for the command by order and stops when one returns values, effectively prioritizing by order.
+     * Executors that implement {@link TabCandidates} are answered from their values instead of being called.
+     * It can be called from Paper's async tab completion as long as the list is not modified at the same time, otherwise use {@link ConcurrentPluginCommands}
      * @param sender {@link CommandSender}
      * @param command {@link Command}
      * @param alias {@link String}
@@ -78,12 +422,21 @@ public class PluginCommands extends ArrayList<TabExecutor> {
      * @return
      */
     public @Nullable List<String> completeTab(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+        CommandRateLimiter rateLimiter = this.rateLimiter;
+
+        if(rateLimiter == null)
+            return dispatchTab(sender, command, alias, args);
+
+        return rateLimiter.complete(sender, command, () -> dispatchTab(sender, command, alias, args));
+    }
+
+    private List<String> dispatchTab(CommandSender sender, Command command, String alias, String[] args) {
         List<String> results = new ArrayList<>();
 
-        for (TabExecutor executor: this) {
-            List<String> result = executor.onTabComplete(sender, command, alias, args);
-            if(result != null)
-                results.addAll(result);
+        CommandIndex index = index();
+
+        for (TabExecutor executor: index.get(command, alias)) {
+            complete(index, executor, sender, command, alias, args, results);
 
             if(results.size() > 0)
                 break;
@@ -93,7 +446,8 @@ public class PluginCommands extends ArrayList<TabExecutor> {
     }
 
     /**
-     * Calls each {@link TabExecutor#onTabComplete(CommandSender, Command, String, String[])} by order without stopping
+     * Calls each {@link TabExecutor#onTabComplete(CommandSender, Command, String, String[])} registered for the command by order without stopping.
+     * Executors that implement {@link TabCandidates} are answered from their values instead of being called
      * @param sender {@link CommandSender}
      * @param command {@link Command}
      * @param alias {@link String}
@@ -101,14 +455,254 @@ public class PluginCommands extends ArrayList<TabExecutor> {
      * @return
      */
     public @Nullable List<String> completeTabAll(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+        CommandRateLimiter rateLimiter = this.rateLimiter;
+
+        if(rateLimiter == null)
+            return dispatchTabAll(sender, command, alias, args);
+
+        return rateLimiter.complete(sender, command, () -> dispatchTabAll(sender, command, alias, args));
+    }
+
+    private List<String> dispatchTabAll(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> results = new ArrayList<>();
+
+        CommandIndex index = index();
+
+        for (TabExecutor executor: index.get(command, alias)) {
+            complete(index, executor, sender, command, alias, args, results);
+        }
+
+        return results;
+    }
+
+    /**
+     * Same as {@link #callAll(CommandSender, Command, String, String[])} except that each {@link AsyncTabExecutor} that doesn't require the main thread
+     * is called at the same time on the {@link AsyncDispatcher}, while the other executors are called on this thread.
+     * An executor that is still running after the deadline is cancelled and counts as not executed
+     * @param sender {@link CommandSender}
+     * @param command {@link Command}
+     * @param label {@link String}
+     * @param args {@link String[]}
+     * @param deadline How long to wait for the executors on the {@link AsyncDispatcher}
+     * @return If a command was executed
+     */
+    public boolean callAllParallel(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args, @NotNull Duration deadline) {
+        AsyncDispatcher dispatcher = asyncDispatcher;
+
+        //Fail-fast
+        Objects.requireNonNull(dispatcher, "Async Dispatcher not set!");
+
+        CommandRateLimiter rateLimiter = this.rateLimiter;
+
+        if(rateLimiter == null)
+            return dispatchAllParallel(dispatcher, sender, command, label, args, deadline);
+
+        return rateLimiter.call(sender, command, () -> dispatchAllParallel(dispatcher, sender, command, label, args, deadline));
+    }
+
+    private boolean dispatchAllParallel(AsyncDispatcher dispatcher, CommandSender sender, Command command, String label, String[] args, Duration deadline) {
+        CommandIndex index = index();
+        TabExecutor[] executors = index.get(command, label);
+        Future<Boolean>[] futures = newFutures(executors.length);
+        long end = System.nanoTime() + deadline.toNanos();
+        boolean result = false;
+
+        for(int i = 0; i < executors.length; i++) {
+            TabExecutor executor = executors[i];
+
+            if(isThreadSafe(executor))
+                futures[i] = dispatcher.submit(() -> execute(index, executor, sender, command, label, args));
+        }
+
+        for(int i = 0; i < executors.length; i++) {
+            if(futures[i] == null)
+                result |= execute(index, executors[i], sender, command, label, args);
+            else
+                result |= Boolean.TRUE.equals(await(dispatcher, executors[i], futures[i], end));
+        }
+
+        return result;
+    }
+
+    /**
+     * Same as {@link #completeTabAll(CommandSender, Command, String, String[])} except that each {@link AsyncTabExecutor} that doesn't require the main thread
+     * is called at the same time on the {@link AsyncDispatcher}, while the other executors are called on this thread.
+     * The results are still merged by order, and an executor that is still running after the deadline is cancelled and left out
+     * @param sender {@link CommandSender}
+     * @param command {@link Command}
+     * @param alias {@link String}
+     * @param args {@link String[]}
+     * @param deadline How long to wait for the executors on the {@link AsyncDispatcher}
+     * @return The tab completions
+     */
+    public @Nullable List<String> completeTabAllParallel(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args, @NotNull Duration deadline) {
+        AsyncDispatcher dispatcher = asyncDispatcher;
+
+        //Fail-fast
+        Objects.requireNonNull(dispatcher, "Async Dispatcher not set!");
+
+        CommandRateLimiter rateLimiter = this.rateLimiter;
+
+        if(rateLimiter == null)
+            return dispatchTabAllParallel(dispatcher, sender, command, alias, args, deadline);
+
+        return rateLimiter.complete(sender, command, () -> dispatchTabAllParallel(dispatcher, sender, command, alias, args, deadline));
+    }
+
+    private List<String> dispatchTabAllParallel(AsyncDispatcher dispatcher, CommandSender sender, Command command, String alias, String[] args, Duration deadline) {
+        CommandIndex index = index();
+        TabExecutor[] executors = index.get(command, alias);
+        Future<List<String>>[] futures = newFutures(executors.length);
+        long end = System.nanoTime() + deadline.toNanos();
         List<String> results = new ArrayList<>();
 
-        for (TabExecutor executor: this) {
-            List<String> result = executor.onTabComplete(sender, command, alias, args);
+        for(int i = 0; i < executors.length; i++) {
+            TabExecutor executor = executors[i];
+
+            if(isThreadSafe(executor))
+                futures[i] = dispatcher.submit(() -> {
+                    List<String> result = new ArrayList<>();
+                    complete(index, executor, sender, command, alias, args, result);
+
+                    return result;
+                });
+        }
+
+        for(int i = 0; i < executors.length; i++) {
+            if(futures[i] == null) {
+                complete(index, executors[i], sender, command, alias, args, results);
+                continue;
+            }
+
+            List<String> result = await(dispatcher, executors[i], futures[i], end);
             if(result != null)
                 results.addAll(result);
         }
 
         return results;
     }
+
+    private void callOffMainThread(AsyncDispatcher dispatcher, TabExecutor executor, CommandSender sender, Command command, String label, String[] args) {
+        boolean result;
+
+        try {
+            result = invoke(executor, sender, command, label, args);
+        } catch (Throwable e) {
+            dispatcher.getPlugin().getLogger().log(Level.SEVERE, "Unhandled exception executing command '" + label + "' in " + executor.getClass().getName(), e);
+
+            return;
+        }
+
+        //Same as what Bukkit does when a command returns false
+        if(!result && command.getUsage().length() > 0)
+            dispatcher.runOnMainThread(() -> {
+                for (String line: command.getUsage().replace("<command>", label).split("\n"))
+                    sender.sendMessage(line);
+            });
+    }
+
+    private boolean execute(CommandIndex index, TabExecutor executor, CommandSender sender, Command command, String label, String[] args) {
+        return isPermitted(index, executor, sender) && invoke(executor, sender, command, label, args);
+    }
+
+    /**
+     * Calls the executor without checking its permission, which the caller already did
+     */
+    private boolean invoke(TabExecutor executor, CommandSender sender, Command command, String label, String[] args) {
+        CommandTimings timings = this.timings;
+        //Free unless a flight recording enables it
+        CommandDispatchEvent event = new CommandDispatchEvent();
+        long start = timings != null ? System.nanoTime() : 0;
+        boolean result = false;
+
+        event.begin();
+
+        try {
+            result = executor.onCommand(sender, command, label, args);
+
+            return result;
+        } finally {
+            if(timings != null)
+                timings.recordCall(executor, command, System.nanoTime() - start);
+
+            event.commit(executor.getClass(), command.getName(), label, args.length, result);
+        }
+    }
+
+    private void complete(CommandIndex index, TabExecutor executor, CommandSender sender, Command command, String alias, String[] args, List<String> results) {
+        if(!isPermitted(index, executor, sender))
+            return;
+
+        CommandTimings timings = this.timings;
+        TabCompletionCache cache = this.tabCompletionCache;
+        TabCompleteEvent event = new TabCompleteEvent();
+        long start = timings != null ? System.nanoTime() : 0;
+        int size = results.size();
+        String source = TabCompleteEvent.SOURCE_CANDIDATES;
+
+        event.begin();
+
+        try {
+            if(!index.complete(executor, args, results)) {
+                boolean isCached = cache != null && executor instanceof CachedTabCompletion;
+                source = isCached ? TabCompleteEvent.SOURCE_CACHE : TabCompleteEvent.SOURCE_EXECUTOR;
+
+                List<String> result = isCached
+                        ? cache.complete(executor, sender, command, alias, args)
+                        : executor.onTabComplete(sender, command, alias, args);
+                if(result != null)
+                    results.addAll(result);
+            }
+        } finally {
+            if(timings != null)
+                timings.recordCompletion(executor, command, System.nanoTime() - start);
+
+            event.commit(executor.getClass(), command.getName(), args.length, results.size() - size, source);
+        }
+    }
+
+    private boolean isPermitted(CommandIndex index, TabExecutor executor, CommandSender sender) {
+        return !(executor instanceof RequiredPermission) || hasPermission(sender, index.getPermissionNode(executor));
+    }
+
+    private static boolean isThreadSafe(TabExecutor executor) {
+        return executor instanceof AsyncTabExecutor && !((AsyncTabExecutor) executor).isMainThreadRequired();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Future<T>[] newFutures(int length) {
+        return (Future<T>[]) new Future<?>[length];
+    }
+
+    /**
+     * Waits for the result of an executor until the deadline, cancelling it if it's too late
+     * @return The result or null if it failed or was too late
+     */
+    private static <T> T await(AsyncDispatcher dispatcher, TabExecutor executor, Future<T> future, long end) {
+        try {
+            return future.get(Math.max(end - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException ignored) {
+            future.cancel(true);
+        } catch (ExecutionException e) {
+            dispatcher.getPlugin().getLogger().log(Level.SEVERE, "Unhandled exception in " + executor.getClass().getName(), e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+
+        return null;
+    }
+
+    /**
+     * An index along with the version of the list it was built from, so both are handed over at once
+     */
+    private static final class Indexed {
+        private final CommandIndex index;
+        private final long version;
+
+        private Indexed(CommandIndex index, long version) {
+            this.index = index;
+            this.version = version;
+        }
+    }
 }
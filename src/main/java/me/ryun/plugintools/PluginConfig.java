@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+/**
+ * A YAML file in the data folder of a {@link JavaPlugin} that reloads itself when it's edited.
+ * Changes are debounced and parsed on a separate thread, then published as a new {@link ConfigSnapshot} with a single atomic swap,
+ * so reading it from the server thread never waits for a reload. Reloads are done one at a time, so the last read of the file always wins
+ * and the listeners see each change once, in order
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class PluginConfig {
+    private final JavaPlugin plugin;
+    private final Path file;
+    private final long debounceMillis;
+    private final boolean isNotifyingOnMainThread;
+    private final AtomicReference<ConfigSnapshot> snapshot;
+    private final List<ConfigListener> listeners;
+    private final WatchService watchService;
+    private final Object reloadLock = new Object();
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     * @param plugin {@link JavaPlugin}
+     * @param fileName The file name inside the data folder
+     * @param debounceMillis How long the file has to be left alone before it's reloaded
+     * @param isWatching Whether the file is reloaded when it's edited
+     * @param isNotifyingOnMainThread Whether the listeners are called on the server thread
+     */
+    private PluginConfig(JavaPlugin plugin, String fileName, long debounceMillis, boolean isWatching, boolean isNotifyingOnMainThread) {
+        this.plugin = plugin;
+        this.file = plugin.getDataFolder().toPath().resolve(fileName).toAbsolutePath();
+        this.debounceMillis = debounceMillis;
+        this.isNotifyingOnMainThread = isNotifyingOnMainThread;
+        this.listeners = new CopyOnWriteArrayList<>();
+
+        //Copy the default file from the jar the first time
+        if(!Files.exists(file) && plugin.getResource(fileName) != null)
+            plugin.saveResource(fileName, false);
+
+        ConfigSnapshot loaded = parse();
+        this.snapshot = new AtomicReference<>(loaded != null ? loaded : ConfigSnapshot.EMPTY);
+        this.watchService = isWatching ? watch() : null;
+    }
+
+    /**
+     * Get the latest {@link ConfigSnapshot}. Keep using the same snapshot for a whole task if the values have to agree with each other
+     * @return {@link ConfigSnapshot}
+     */
+    public @Nonnull ConfigSnapshot get() {
+        return snapshot.get();
+    }
+
+    /**
+     * Get the file that is loaded
+     * @return {@link Path}
+     */
+    public @Nonnull Path getFile() {
+        return file;
+    }
+
+    /**
+     * Adds a listener that is called with the changed keys every time the file is reloaded
+     * @param listener {@link ConfigListener}
+     */
+    public void addListener(@Nonnull ConfigListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener
+     * @param listener {@link ConfigListener}
+     */
+    public void removeListener(@Nonnull ConfigListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reloads the file right away on the calling thread. Waits for a reload already running on the watching thread, so an older read never replaces a newer one
+     * @return The dotted keys that changed. Empty if nothing changed or the file can't be parsed
+     */
+    public @Nonnull Set<String> reload() {
+        //Reading, swapping and notifying happen in one go, so the listeners are notified in the order the file was read
+        synchronized (reloadLock) {
+            ConfigSnapshot loaded = parse();
+
+            if(loaded == null)
+                return Set.of();
+
+            ConfigSnapshot old = snapshot.getAndSet(loaded);
+            Set<String> changed = loaded.diff(old);
+
+            if(!changed.isEmpty())
+                notifyListeners(loaded, changed);
+
+            return changed;
+        }
+    }
+
+    /**
+     * Stops watching the file. Call this in {@link JavaPlugin#onDisable()}
+     */
+    public void close() {
+        if(watchService == null)
+            return;
+
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+            //Closing is best effort
+        }
+    }
+
+    private ConfigSnapshot parse() {
+        if(!Files.isRegularFile(file))
+            return ConfigSnapshot.EMPTY;
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Object parsed = new Yaml(new SafeConstructor(new LoaderOptions())).load(reader);
+
+            return ConfigSnapshot.of(parsed instanceof Map ? (Map<?, ?>) parsed : null);
+        } catch (Exception e) {
+            //Keep the last good snapshot while the file is broken
+            plugin.getLogger().log(Level.WARNING, "Could not load " + file.getFileName() + ", keeping the previous values", e);
+
+            return null;
+        }
+    }
+
+    private WatchService watch() {
+        try {
+            Files.createDirectories(file.getParent());
+
+            WatchService service = file.getFileSystem().newWatchService();
+            file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+            Thread thread = new Thread(() -> run(service), plugin.getName() + "-Config-" + file.getFileName());
+            thread.setDaemon(true); //Never keep the server from stopping
+            thread.start();
+
+            return service;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not watch " + file.getFileName() + " for changes", e);
+
+            return null;
+        }
+    }
+
+    private void run(WatchService service) {
+        try {
+            while(true) {
+                if(!isChanged(service.take()))
+                    continue;
+
+                //Editors save in several writes, so wait until the file is left alone
+                WatchKey key;
+                while((key = service.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null)
+                    isChanged(key);
+
+                reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException ignored) {
+            //Closed
+        }
+    }
+
+    private boolean isChanged(WatchKey key) {
+        boolean isChanged = false;
+
+        for (WatchEvent<?> event: key.pollEvents()) {
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context()))
+                isChanged = true;
+        }
+
+        key.reset();
+
+        return isChanged;
+    }
+
+    private void notifyListeners(ConfigSnapshot loaded, Set<String> changed) {
+        if(listeners.isEmpty())
+            return;
+
+        Runnable task = () -> {
+            for (ConfigListener listener: listeners)
+                listener.onConfigChange(loaded, changed);
+        };
+
+        if(isNotifyingOnMainThread && !Bukkit.isPrimaryThread() && plugin.isEnabled())
+            Bukkit.getScheduler().runTask(plugin, task);
+        else
+            task.run();
+    }
+
+    /**
+     * The Factory for setting the Plugin Config
+     */
+    public static class Factory {
+        private JavaPlugin plugin;
+        private String fileName;
+        private Duration debounce;
+        private boolean isWatching;
+        private boolean isNotifyingOnMainThread;
+
+        /**
+         * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
+         */
+        private Factory() {
+            plugin = null;
+            fileName = "config.yml";
+            debounce = Duration.ofMillis(500);
+            isWatching = true;
+            isNotifyingOnMainThread = true;
+        }
+
+        /**
+         * Make a new {@link Factory} instance
+         * @return {@link Factory}
+         */
+        public static Factory make() {
+            return new Factory();
+        }
+
+        /**
+         * Sets the {@link JavaPlugin} value
+         * @param value {@link JavaPlugin}
+         * @return The same instance
+         */
+        public Factory setPlugin(@Nonnull JavaPlugin value) {
+            this.plugin = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the file name inside the data folder. Defaults to config.yml
+         * @param value String
+         * @return The same instance
+         */
+        public Factory setFileName(@Nonnull String value) {
+            this.fileName = value;
+
+            return this;
+        }
+
+        /**
+         * Sets how long the file has to be left alone after an edit before it's reloaded. Defaults to 500 milliseconds
+         * @param value {@link Duration}
+         * @return The same instance
+         */
+        public Factory setDebounce(@Nonnull Duration value) {
+            this.debounce = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the isWatching value. If false, the file is only reloaded with {@link PluginConfig#reload()}. Defaults to true
+         * @param value boolean
+         * @return The same instance
+         */
+        public Factory isWatching(boolean value) {
+            this.isWatching = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the isNotifyingOnMainThread value. If false, the listeners are called on the thread that reloaded the file. Defaults to true
+         * @param value boolean
+         * @return The same instance
+         */
+        public Factory isNotifyingOnMainThread(boolean value) {
+            this.isNotifyingOnMainThread = value;
+
+            return this;
+        }
+
+        /**
+         * Loads the file and creates the new {@link PluginConfig} instance
+         * @return {@link PluginConfig}
+         */
+        public PluginConfig create() {
+            Objects.requireNonNull(plugin, "Plugin value has to be set!");
+            Objects.requireNonNull(fileName, "File name value has to be set!");
+            Objects.requireNonNull(debounce, "Debounce value has to be set!");
+
+            if(debounce.isNegative())
+                throw new IllegalArgumentException("Debounce can't be negative!");
+
+            return new PluginConfig(plugin, fileName, debounce.toMillis(), isWatching, isNotifyingOnMainThread);
+        }
+    }
+}
@@ -15,6 +15,9 @@
 
 package me.ryun.plugintools;
 
+import org.bukkit.plugin.java.JavaPlugin;
+
+import javax.annotation.Nonnull;
 import java.util.Objects;
 
 /**
@@ -22,7 +25,9 @@ import java.util.Objects;
  * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
  */
 public class PluginEnvironment {
-    private static PluginEnvironment self = null;
+    private static final PluginRegistry<PluginEnvironment> registry = new PluginRegistry<>();
+
+    private static volatile PluginEnvironment self = null;
 
     private final boolean isDevelopment;
     private final boolean isVerbose;
@@ -41,14 +46,18 @@ public class PluginEnvironment {
      * This is kind-of singleton but not at the same time since you can change the instance with the {@link Factory} class
      * @param isDevelopment Whether the plugin is essentially in development(true) or production/release(false)
      * @param isVerbose Whether the plugin outputs Verbose logs in the Console
+     * @param plugin The {@link JavaPlugin} the instance is registered for or null to only set the latest instance
      * @return The new instance of this class
      */
-    private static PluginEnvironment instantiate(boolean isDevelopment, boolean isVerbose) {
-        self = new PluginEnvironment(isDevelopment, isVerbose);
+    private static PluginEnvironment instantiate(boolean isDevelopment, boolean isVerbose, JavaPlugin plugin) {
+        PluginEnvironment instance = new PluginEnvironment(isDevelopment, isVerbose);
 
-        System.gc(); //Throw away the last instance. Probably not needed
+        if(plugin != null)
+            registry.put(plugin, instance);
 
-        return self;
+        self = instance;
+
+        return instance;
     }
 
     /**
@@ -56,12 +65,68 @@ public class PluginEnvironment {
      * @return The latest instance of this class
      */
     public static PluginEnvironment get() {
+        PluginEnvironment instance = self;
+
         //Fail-fast
-        Objects.requireNonNull(self, "Plugin Environment not instantiated!");
+        Objects.requireNonNull(instance, "Plugin Environment not instantiated!");
+
+        return instance;
+    }
+
+    /**
+     * Get the instance of a plugin or fail-fast if that plugin didn't instantiate one with {@link Factory#setPlugin(JavaPlugin)}.
+     * Use this if other plugins might share this class with yours
+     * @param plugin {@link JavaPlugin}
+     * @return The instance created for the plugin
+     */
+    public static PluginEnvironment get(@Nonnull JavaPlugin plugin) {
+        PluginEnvironment instance = registry.get(plugin);
+
+        //Fail-fast
+        Objects.requireNonNull(instance, "Plugin Environment not instantiated for " + plugin.getName() + "!");
+
+        return instance;
+    }
+
+    /**
+     * Forgets the instance of a plugin so it can be garbage collected after a reload. Call this in {@link JavaPlugin#onDisable()}
+     * @param plugin {@link JavaPlugin}
+     */
+    public static void unregister(@Nonnull JavaPlugin plugin) {
+        PluginEnvironment removed = registry.remove(plugin);
+
+        if(removed != null && removed == self)
+            self = null;
+    }
 
+    /**
+     * Get the instance of this class without failing if it's not instantiated
+     * @return The latest instance of this class or null
+     */
+    static PluginEnvironment getOrNull() {
         return self;
     }
 
+    /**
+     * Get the instance registered for a plugin without failing or falling back to the latest instance
+     * @param plugin {@link JavaPlugin}
+     * @return The instance or null if the plugin didn't register one
+     */
+    static PluginEnvironment getRegisteredOrNull(@Nonnull JavaPlugin plugin) {
+        return registry.get(plugin);
+    }
+
+    /**
+     * Get the instance of a plugin without failing, falling back to the latest instance if the plugin didn't register one
+     * @param plugin {@link JavaPlugin}
+     * @return The instance or null
+     */
+    static PluginEnvironment getOrNull(@Nonnull JavaPlugin plugin) {
+        PluginEnvironment instance = registry.get(plugin);
+
+        return instance != null ? instance : self;
+    }
+
     /**
      * Is this plugin in development(true) or production/release(false)?
      * @return boolean
@@ -84,6 +149,7 @@ public class PluginEnvironment {
     public static class Factory {
         private boolean isDevelopment;
         private boolean isVerbose;
+        private JavaPlugin plugin;
 
         /**
          * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
@@ -91,6 +157,7 @@ public class PluginEnvironment {
         private Factory() {
             isDevelopment = true;
             isVerbose = false;
+            plugin = null;
         }
 
         /**
@@ -123,12 +190,24 @@ public class PluginEnvironment {
             return this;
         }
 
+        /**
+         * Sets the {@link JavaPlugin} the instance is registered for, so {@link PluginEnvironment#get(JavaPlugin)} finds it
+         * even if another plugin shares this class. Optional
+         * @param value {@link JavaPlugin}
+         * @return The same instance
+         */
+        public Factory setPlugin(@Nonnull JavaPlugin value) {
+            this.plugin = value;
+
+            return this;
+        }
+
         /**
          * Creates and sets the new {@link PluginEnvironment} instance
          * @return {@link PluginEnvironment}
          */
         public PluginEnvironment create() {
-            return PluginEnvironment.instantiate(this.isDevelopment, this.isVerbose);
+            return PluginEnvironment.instantiate(this.isDevelopment, this.isVerbose, this.plugin);
         }
     }
 }
@@ -15,16 +15,23 @@
 
 package me.ryun.plugintools;
 
+import me.ryun.plugintools.jfr.PluginInfoLoadEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.yaml.snakeyaml.Yaml;
 
 import javax.annotation.Nonnull;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 /**
- * The class for easily retrieving the values of plugin.yml from {@link JavaPlugin}
+ * The class for easily retrieving the values of plugin.yml from {@link JavaPlugin}. The values can be compiled at build time
+ * with {@code gradle/plugin-info.gradle} so nothing is parsed when the plugin loads
  * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
  */
 public class PluginInfo {
@@ -33,34 +40,52 @@ public class PluginInfo {
      */
     public static final String NO_VALUE_SET = "No value set";
 
-    private static PluginInfo self = null;
+    private static final PluginRegistry<PluginInfo> registry = new PluginRegistry<>();
 
-    private final Map<String, String> pluginInfo;
+    private static volatile PluginInfo self = null;
+
+    private final Map<String, Object> pluginInfo;
 
     /**
      * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
      * @param plugin {@link JavaPlugin}
+     * @param values The compiled values of the plugin.yml or null to parse the plugin.yml in the jar
      */
-    private PluginInfo(JavaPlugin plugin) {
+    private PluginInfo(JavaPlugin plugin, Map<String, ?> values) {
+        if(values != null) {
+            this.pluginInfo = Collections.unmodifiableMap(new HashMap<>(values));
+
+            return;
+        }
+
         InputStream io = plugin.getResource("plugin.yml");
 
         //Fail-fast
         Objects.requireNonNull(io, "plugin.yml does not exist!");
 
-        Yaml pluginYaml = new Yaml();
+        Map<String, Object> loaded = YamlLoader.load(io);
 
-        this.pluginInfo = pluginYaml.load(io);
+        this.pluginInfo = loaded != null ? Collections.unmodifiableMap(loaded) : Collections.emptyMap();
     }
 
     /**
      * This is kind-of singleton but not at the same time since you can change the instance with the {@link Factory} class
      * @param plugin The {@link JavaPlugin} where to grab the plugin.yml file
+     * @param values The compiled values of the plugin.yml or null to parse it instead
      * @return The new instance of this class
      */
-    private static PluginInfo instantiate(JavaPlugin plugin) {
-        self = new PluginInfo(plugin);
+    private static PluginInfo instantiate(JavaPlugin plugin, Map<String, ?> values) {
+        PluginInfoLoadEvent event = new PluginInfoLoadEvent();
+        event.begin();
+
+        PluginInfo instance = new PluginInfo(plugin, values);
 
-        return self;
+        event.commit(plugin.getName(), values != null, instance.pluginInfo.size());
+
+        registry.put(plugin, instance);
+        self = instance;
+
+        return instance;
     }
 
     /**
@@ -69,10 +94,37 @@ public class PluginInfo {
      * @return The latest instance of this class
      */
     public static PluginInfo get() {
+        PluginInfo instance = self;
+
+        //Fail-fast
+        Objects.requireNonNull(instance, "Plugin Info not instantiated!");
+
+        return instance;
+    }
+
+    /**
+     * Get the instance of a plugin or fail-fast if that plugin didn't instantiate one. Use this if other plugins might share this class with yours
+     * @param plugin {@link JavaPlugin}
+     * @return The instance created for the plugin
+     */
+    public static PluginInfo get(@Nonnull JavaPlugin plugin) {
+        PluginInfo instance = registry.get(plugin);
+
         //Fail-fast
-        Objects.requireNonNull(self, "Plugin Info not instantiated!");
+        Objects.requireNonNull(instance, "Plugin Info not instantiated for " + plugin.getName() + "!");
 
-        return self;
+        return instance;
+    }
+
+    /**
+     * Forgets the instance of a plugin so it can be garbage collected after a reload. Call this in {@link JavaPlugin#onDisable()}
+     * @param plugin {@link JavaPlugin}
+     */
+    public static void unregister(@Nonnull JavaPlugin plugin) {
+        PluginInfo removed = registry.remove(plugin);
+
+        if(removed != null && removed == self)
+            self = null;
     }
 
     /**
@@ -80,7 +132,7 @@ public class PluginInfo {
      * @return String
      */
     public String getAPIVersion() {
-        return pluginInfo.getOrDefault("api-version", NO_VALUE_SET);
+        return getString("api-version");
     }
 
     /**
@@ -88,7 +140,7 @@ public class PluginInfo {
      * @return String
      */
     public String getAuthor() {
-        return pluginInfo.getOrDefault("author", NO_VALUE_SET);
+        return getString("author");
     }
 
     /**
@@ -96,7 +148,7 @@ public class PluginInfo {
      * @return String
      */
     public String getDescription() {
-        return pluginInfo.getOrDefault("description", NO_VALUE_SET);
+        return getString("description");
     }
 
     /**
@@ -104,7 +156,7 @@ public class PluginInfo {
      * @return String
      */
     public String getMainClass() {
-        return pluginInfo.getOrDefault("main", NO_VALUE_SET);
+        return getString("main");
     }
 
     /**
@@ -112,7 +164,7 @@ public class PluginInfo {
      * @return String
      */
     public String getName() {
-        return pluginInfo.getOrDefault("name", NO_VALUE_SET);
+        return getString("name");
     }
 
     /**
@@ -120,7 +172,7 @@ public class PluginInfo {
      * @return String
      */
     public String getPrefix() {
-        return pluginInfo.getOrDefault("prefix", NO_VALUE_SET);
+        return getString("prefix");
     }
 
     /**
@@ -128,7 +180,96 @@ public class PluginInfo {
      * @return String
      */
     public String getVersion() {
-        return pluginInfo.getOrDefault("version", NO_VALUE_SET);
+        return getString("version");
+    }
+
+    /**
+     * Get the Authors of the {@link JavaPlugin} according to the plugin.yml. Includes the author field first like Bukkit does
+     * @return The authors or an empty list
+     */
+    public List<String> getAuthors() {
+        List<String> authors = new ArrayList<>();
+
+        if(pluginInfo.get("author") != null)
+            authors.add(String.valueOf(pluginInfo.get("author")));
+
+        authors.addAll(getStringList("authors"));
+
+        return Collections.unmodifiableList(authors);
+    }
+
+    /**
+     * Get the hard dependencies of the {@link JavaPlugin} according to the plugin.yml
+     * @return The plugin names or an empty list
+     */
+    public List<String> getDepend() {
+        return getStringList("depend");
+    }
+
+    /**
+     * Get the soft dependencies of the {@link JavaPlugin} according to the plugin.yml
+     * @return The plugin names or an empty list
+     */
+    public List<String> getSoftDepend() {
+        return getStringList("softdepend");
+    }
+
+    /**
+     * Get the plugins the {@link JavaPlugin} loads before according to the plugin.yml
+     * @return The plugin names or an empty list
+     */
+    public List<String> getLoadBefore() {
+        return getStringList("loadbefore");
+    }
+
+    /**
+     * Get any value of the plugin.yml as text
+     * @param key The key at the top of the plugin.yml i.e. website
+     * @return String or {@link #NO_VALUE_SET}
+     */
+    public String getString(String key) {
+        Object value = pluginInfo.get(key);
+
+        //Numbers like version: 1.0 are not strings in YAML
+        return value != null ? String.valueOf(value) : NO_VALUE_SET;
+    }
+
+    /**
+     * Get any list of the plugin.yml as text. A single value is returned as a list of one
+     * @param key The key at the top of the plugin.yml i.e. depend
+     * @return The values or an empty list
+     */
+    public List<String> getStringList(String key) {
+        Object value = pluginInfo.get(key);
+
+        if(value == null)
+            return Collections.emptyList();
+        if(!(value instanceof Collection))
+            return Collections.singletonList(String.valueOf(value));
+
+        List<String> values = new ArrayList<>();
+
+        for (Object element: (Collection<?>) value)
+            values.add(String.valueOf(element));
+
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Get all of the values of the plugin.yml, including nested ones like commands and permissions
+     * @return An unmodifiable map
+     */
+    public Map<String, Object> getValues() {
+        return pluginInfo;
+    }
+
+    /**
+     * Only loaded when the plugin.yml has to be parsed, so SnakeYAML is never needed with compiled values
+     */
+    private static class YamlLoader {
+        private static Map<String, Object> load(InputStream io) {
+            return new Yaml().load(io);
+        }
     }
 
     /**
@@ -136,12 +277,14 @@ public class PluginInfo {
      */
     public static class Factory {
         private JavaPlugin plugin;
+        private Map<String, ?> values;
 
         /**
          * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
          */
         private Factory() {
             plugin = null;
+            values = null;
         }
 
         /**
@@ -163,6 +306,18 @@ public class PluginInfo {
             return this;
         }
 
+        /**
+         * Sets the values compiled from the plugin.yml by {@code gradle/plugin-info.gradle}, i.e. {@code CompiledPluginInfo.VALUES}.
+         * The plugin.yml is then never parsed
+         * @param value The compiled values
+         * @return The same instance
+         */
+        public Factory setValues(@Nonnull Map<String, ?> value) {
+            this.values = value;
+
+            return this;
+        }
+
         /**
          * Creates and sets the new {@link PluginInfo} instance
          * @return {@link PluginInfo}
@@ -170,7 +325,7 @@ public class PluginInfo {
         public PluginInfo create() {
             Objects.requireNonNull(plugin, "Plugin value has to be set!");
 
-            return PluginInfo.instantiate(this.plugin);
+            return PluginInfo.instantiate(this.plugin, this.values);
         }
     }
 }
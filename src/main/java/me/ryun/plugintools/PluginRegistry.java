@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The instances of a class for each plugin, keyed by the {@link ClassLoader} of the plugin so plugins sharing the same copy of this library
+ * never overwrite each other. The map is copied on every change and published with a volatile write, so a lookup is one volatile read and never locks
+ * @param <T> The type of the instances
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+final class PluginRegistry<T> {
+    private volatile Map<ClassLoader, T> instances = Collections.emptyMap();
+
+    /**
+     * Get the instance of a plugin
+     * @param plugin {@link JavaPlugin}
+     * @return The instance or null if the plugin never registered one
+     */
+    T get(@Nonnull JavaPlugin plugin) {
+        return get(plugin.getClass());
+    }
+
+    /**
+     * Get the instance of the plugin that loaded a class
+     * @param owner Any class of the plugin
+     * @return The instance or null if the plugin never registered one
+     */
+    T get(@Nonnull Class<?> owner) {
+        return instances.get(owner.getClassLoader());
+    }
+
+    /**
+     * Registers or replaces the instance of a plugin
+     * @param plugin {@link JavaPlugin}
+     * @param instance The instance
+     */
+    synchronized void put(@Nonnull JavaPlugin plugin, @Nonnull T instance) {
+        Map<ClassLoader, T> copy = new IdentityHashMap<>(instances);
+        copy.put(plugin.getClass().getClassLoader(), instance);
+
+        instances = copy;
+    }
+
+    /**
+     * Removes the instance of a plugin, so a disabled plugin and its {@link ClassLoader} can be garbage collected
+     * @param plugin {@link JavaPlugin}
+     * @return The removed instance or null
+     */
+    synchronized T remove(@Nonnull JavaPlugin plugin) {
+        ClassLoader loader = plugin.getClass().getClassLoader();
+
+        if(!instances.containsKey(loader))
+            return null;
+
+        Map<ClassLoader, T> copy = new IdentityHashMap<>(instances);
+        T removed = copy.remove(loader);
+
+        instances = copy.isEmpty() ? Collections.emptyMap() : copy;
+
+        return removed;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.TabExecutor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Implemented by a {@link TabExecutor} that can only be used with a permission. {@link PluginCommands} skips it for senders without the permission
+ * before calling it, checking with its {@link PermissionCache} if one is set, as if it wasn't added for them at all
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public interface RequiredPermission {
+    /**
+     * Get the permission needed to call or tab complete this executor. It is read once each time the list is modified, so it shouldn't change
+     * @return The permission
+     */
+    @NotNull String getRequiredPermission();
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import me.ryun.plugintools.jfr.ServerStateEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+
+/**
+ * Implements the {@link Listener} interface to put the server to sleep when the last player quits instead of shutting it down like {@link ServerShutdownOnQuit}.
+ * After a grace period, the worlds are saved, autosaving is turned off, the chunks outside of spawn are unloaded a few at a time and every {@link HibernationHook} is paused.
+ * The next player to join wakes everything up again, on a server that is still warm
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class ServerHibernation implements Listener {
+    private final JavaPlugin plugin;
+    private final long gracePeriodTicks;
+    private final boolean isUnloadingChunks;
+    private final int chunksPerTick;
+    private final int spawnRadius;
+    private final boolean isTrimmingHeap;
+    private final List<HibernationHook> hooks;
+    private final Map<World, Boolean> autoSaves;
+
+    private BukkitTask pending;
+    private BukkitTask unloading;
+    private int unloadingCount;
+    private long heapBefore;
+    private volatile boolean isHibernating;
+    private volatile long hibernatingSince;
+    private volatile int hibernations;
+    private volatile long chunksUnloaded;
+    private volatile long heapReclaimed;
+    private volatile long hibernatingNanos;
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     * @param plugin The {@link JavaPlugin} that owns the scheduled tasks
+     * @param gracePeriodTicks How long the server has to be empty before it hibernates
+     * @param isUnloadingChunks Whether the chunks outside of spawn are unloaded
+     * @param chunksPerTick The maximum amount of chunks unloaded each tick
+     * @param spawnRadius The radius in chunks around the spawn that is kept loaded if the world keeps its spawn in memory
+     * @param isTrimmingHeap Whether a garbage collection is requested once the chunks are unloaded
+     * @param hooks The {@link HibernationHook} to pause and resume
+     */
+    private ServerHibernation(JavaPlugin plugin, long gracePeriodTicks, boolean isUnloadingChunks, int chunksPerTick, int spawnRadius, boolean isTrimmingHeap, List<HibernationHook> hooks) {
+        this.plugin = plugin;
+        this.gracePeriodTicks = gracePeriodTicks;
+        this.isUnloadingChunks = isUnloadingChunks;
+        this.chunksPerTick = chunksPerTick;
+        this.spawnRadius = spawnRadius;
+        this.isTrimmingHeap = isTrimmingHeap;
+        this.hooks = hooks;
+        this.autoSaves = new IdentityHashMap<>();
+    }
+
+    /**
+     * Starts the grace period when there are no online players after the last player quits
+     * @param event {@link PlayerQuitEvent} from the {@link EventHandler}
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuitEvent(@NotNull PlayerQuitEvent event) {
+        //The online player count is updated only after this event, so we check for <1 instead
+        if(Bukkit.getServer().getOnlinePlayers().size() <= 1)
+            scheduleHibernation();
+    }
+
+    /**
+     * Cancels the grace period or wakes the server up when a player joins
+     * @param event {@link PlayerJoinEvent} from the {@link EventHandler}
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoinEvent(@NotNull PlayerJoinEvent event) {
+        wake();
+    }
+
+    /**
+     * Starts the grace period if nobody is online, i.e. right after the server started. Does nothing if it already started or the server is hibernating
+     */
+    public void scheduleHibernation() {
+        if(pending != null || isHibernating)
+            return;
+
+        pending = Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            pending = null;
+
+            if(Bukkit.getServer().getOnlinePlayers().isEmpty())
+                hibernate();
+        }, gracePeriodTicks);
+    }
+
+    /**
+     * Puts the server to sleep right away. Must be called on the server thread
+     */
+    public void hibernate() {
+        if(isHibernating)
+            return;
+
+        cancel();
+        isHibernating = true;
+        hibernatingSince = System.nanoTime();
+        hibernations++;
+        heapBefore = usedHeap();
+
+        Deque<Chunk> chunks = new ArrayDeque<>();
+
+        for (World world: Bukkit.getWorlds()) {
+            autoSaves.put(world, world.isAutoSave());
+            world.save();
+            //Nothing changes while nobody is online, so the periodic saves are wasted
+            world.setAutoSave(false);
+
+            if(isUnloadingChunks && world.getPlayers().isEmpty()) {
+                for (Chunk chunk: world.getLoadedChunks()) {
+                    if(!chunk.isForceLoaded() && !isSpawnChunk(world, chunk))
+                        chunks.add(chunk);
+                }
+            }
+        }
+
+        for (HibernationHook hook: hooks) {
+            try {
+                hook.onHibernate();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "A hibernation hook failed to pause", e);
+            }
+        }
+
+        if(chunks.isEmpty()) {
+            finishHibernation(0, true);
+            return;
+        }
+
+        //Unloading every chunk at once would cause the exact lag spike this avoids
+        unloadingCount = 0;
+        unloading = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            for(int i = 0; i < chunksPerTick && !chunks.isEmpty(); i++) {
+                Chunk chunk = chunks.poll();
+
+                if(chunk.isLoaded() && chunk.unload(true))
+                    unloadingCount++;
+            }
+
+            if(chunks.isEmpty()) {
+                unloading.cancel();
+                unloading = null;
+                finishHibernation(unloadingCount, true);
+            }
+        }, 1, 1);
+    }
+
+    /**
+     * Wakes the server up right away. Must be called on the server thread
+     */
+    public void wake() {
+        //Woken up while the chunks were still unloading, so record what was done so far
+        if(unloading != null)
+            finishHibernation(unloadingCount, false);
+
+        cancel();
+
+        if(!isHibernating)
+            return;
+
+        isHibernating = false;
+        hibernatingNanos += System.nanoTime() - hibernatingSince;
+        new ServerStateEvent().commit(ServerStateEvent.WAKE, null, 0);
+
+        for (Map.Entry<World, Boolean> autoSave: autoSaves.entrySet())
+            autoSave.getKey().setAutoSave(autoSave.getValue());
+
+        autoSaves.clear();
+
+        for (HibernationHook hook: hooks) {
+            try {
+                hook.onWake();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.WARNING, "A hibernation hook failed to resume", e);
+            }
+        }
+
+        plugin.getLogger().info("Woke up after hibernating for " + Duration.ofNanos(System.nanoTime() - hibernatingSince).getSeconds() + "s");
+    }
+
+    /**
+     * Is the server hibernating?
+     * @return boolean
+     */
+    public boolean isHibernating() {
+        return isHibernating;
+    }
+
+    /**
+     * Get how many times the server hibernated
+     * @return int
+     */
+    public int getHibernations() {
+        return hibernations;
+    }
+
+    /**
+     * Get the total amount of chunks unloaded by every hibernation
+     * @return long
+     */
+    public long getChunksUnloaded() {
+        return chunksUnloaded;
+    }
+
+    /**
+     * Get the total amount of heap freed by every hibernation. Only measured if the heap is trimmed
+     * @return The bytes
+     */
+    public long getHeapReclaimed() {
+        return heapReclaimed;
+    }
+
+    /**
+     * Get the total time spent hibernating, including the current hibernation
+     * @return {@link Duration}
+     */
+    public @NotNull Duration getHibernatingTime() {
+        long nanos = hibernatingNanos;
+
+        if(isHibernating)
+            nanos += System.nanoTime() - hibernatingSince;
+
+        return Duration.ofNanos(nanos);
+    }
+
+    /**
+     * Records the chunks that were unloaded and the heap that was freed
+     * @param unloaded The amount of chunks unloaded
+     * @param isFinished Whether every chunk was unloaded. If not, a player is joining, so the heap is measured without a garbage collection
+     */
+    private void finishHibernation(int unloaded, boolean isFinished) {
+        long reclaimed = 0;
+
+        if(isTrimmingHeap) {
+            //Only ever done while nobody is online to notice the pause
+            if(isFinished)
+                System.gc();
+
+            reclaimed = Math.max(heapBefore - usedHeap(), 0);
+            heapReclaimed += reclaimed;
+        }
+
+        chunksUnloaded += unloaded;
+        new ServerStateEvent().commit(ServerStateEvent.HIBERNATE, null, unloaded);
+
+        plugin.getLogger().info((isFinished ? "Hibernating" : "Woken up while hibernating") + ". Unloaded " + unloaded + " chunks"
+                + (isTrimmingHeap ? " and freed " + (reclaimed >> 20) + "MB of heap" : ""));
+    }
+
+    private void cancel() {
+        if(pending != null) {
+            pending.cancel();
+            pending = null;
+        }
+
+        if(unloading != null) {
+            unloading.cancel();
+            unloading = null;
+        }
+    }
+
+    private boolean isSpawnChunk(World world, Chunk chunk) {
+        if(!world.getKeepSpawnInMemory())
+            return false;
+
+        Location spawn = world.getSpawnLocation();
+
+        return Math.abs(chunk.getX() - (spawn.getBlockX() >> 4)) <= spawnRadius && Math.abs(chunk.getZ() - (spawn.getBlockZ() >> 4)) <= spawnRadius;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The Factory for setting the Server Hibernation
+     */
+    public static class Factory {
+        private JavaPlugin plugin;
+        private Duration gracePeriod;
+        private boolean isUnloadingChunks;
+        private int chunksPerTick;
+        private int spawnRadius;
+        private boolean isTrimmingHeap;
+        private final List<HibernationHook> hooks;
+
+        /**
+         * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
+         */
+        private Factory() {
+            plugin = null;
+            gracePeriod = Duration.ofMinutes(1);
+            isUnloadingChunks = true;
+            chunksPerTick = 16;
+            spawnRadius = 10;
+            isTrimmingHeap = false;
+            hooks = new ArrayList<>();
+        }
+
+        /**
+         * Make a new {@link Factory} instance
+         * @return {@link Factory}
+         */
+        public static Factory make() {
+            return new Factory();
+        }
+
+        /**
+         * Sets the {@link JavaPlugin} value
+         * @param value {@link JavaPlugin}
+         * @return The same instance
+         */
+        public Factory setPlugin(@NotNull JavaPlugin value) {
+            this.plugin = value;
+
+            return this;
+        }
+
+        /**
+         * Sets how long the server has to be empty before it hibernates. Defaults to 1 minute
+         * @param value {@link Duration}
+         * @return The same instance
+         */
+        public Factory setGracePeriod(@NotNull Duration value) {
+            this.gracePeriod = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the isUnloadingChunks value. Defaults to true
+         * @param value boolean
+         * @return The same instance
+         */
+        public Factory isUnloadingChunks(boolean value) {
+            this.isUnloadingChunks = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of chunks unloaded each tick. Defaults to 16
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setChunksPerTick(int value) {
+            this.chunksPerTick = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the radius in chunks around the spawn that is kept loaded in worlds that keep their spawn in memory. Defaults to 10
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setSpawnRadius(int value) {
+            this.spawnRadius = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the isTrimmingHeap value, which requests a garbage collection once the chunks are unloaded. Defaults to false
+         * @param value boolean
+         * @return The same instance
+         */
+        public Factory isTrimmingHeap(boolean value) {
+            this.isTrimmingHeap = value;
+
+            return this;
+        }
+
+        /**
+         * Adds a {@link HibernationHook} that is paused while the server hibernates
+         * @param value {@link HibernationHook}
+         * @return The same instance
+         */
+        public Factory addHook(@NotNull HibernationHook value) {
+            this.hooks.add(value);
+
+            return this;
+        }
+
+        /**
+         * Creates the new {@link ServerHibernation} instance. Register it as a {@link Listener} and call {@link ServerHibernation#scheduleHibernation()}
+         * if the server can start without anyone online
+         * @return {@link ServerHibernation}
+         */
+        public ServerHibernation create() {
+            Objects.requireNonNull(plugin, "Plugin value has to be set!");
+            Objects.requireNonNull(gracePeriod, "Grace period value has to be set!");
+
+            if(gracePeriod.isNegative() || chunksPerTick < 1 || spawnRadius < 0)
+                throw new IllegalArgumentException("Grace period and spawn radius can't be negative, and at least 1 chunk has to be unloaded per tick!");
+
+            return new ServerHibernation(plugin, gracePeriod.toMillis() / 50, isUnloadingChunks, chunksPerTick, spawnRadius, isTrimmingHeap, new ArrayList<>(hooks));
+        }
+    }
+}
@@ -15,6 +15,7 @@
 
 package me.ryun.plugintools;
 
+import me.ryun.plugintools.jfr.ServerStateEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -35,7 +36,9 @@ public class ServerShutdownOnQuit implements Listener {
     @EventHandler(priority = EventPriority.LOWEST)
     public void onPlayerQuitEvent(@NotNull PlayerQuitEvent event){
         //The online player count is updated only after this event, so we check for <1 instead
-        if(Bukkit.getServer().getOnlinePlayers().size() <= 1)
+        if(Bukkit.getServer().getOnlinePlayers().size() <= 1) {
+            new ServerStateEvent().commit(ServerStateEvent.SHUTDOWN, event.getPlayer().getName(), 0);
             Bukkit.getServer().shutdown();
+        }
     }
 }
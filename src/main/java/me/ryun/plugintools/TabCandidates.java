@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Implemented by a {@link TabExecutor} whose tab completions are a fixed list of values for each argument position.
+ * {@link PluginCommands} reads the values once and answers the completions itself instead of calling
+ * {@link TabExecutor#onTabComplete(CommandSender, org.bukkit.command.Command, String, String[])}.
+ * Only executors added with {@link PluginCommands#register(TabExecutor, String, String...)} are answered this way, since the others receive every command.
+ * If an earlier argument has values but isn't one of them, the executor is called instead
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public interface TabCandidates {
+    /**
+     * Get the values that can be tab completed for each argument position, i.e. {@code getTabCandidates()[0]} are the values for the first argument.
+     * A null position, or a position past the end of the array, is still completed by
+     * {@link TabExecutor#onTabComplete(CommandSender, org.bukkit.command.Command, String, String[])}.
+     * The values are only read when the executor is added, so they should never change
+     * @return String[][]
+     */
+    @NotNull String[][] getTabCandidates();
+}
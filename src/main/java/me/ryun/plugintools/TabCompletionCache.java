@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the tab completions of each {@link CachedTabCompletion} executor by sender, command and arguments, so players spamming Tab don't recompute them.
+ * Entries expire after a time to live. Once there are more than the maximum size, the expired entries and then the least recently used quarter are evicted at once,
+ * by whichever thread went over it, so lookups from Paper's async tab completion threads never lock each other out.
+ * Register it as a {@link Listener} to forget the completions of players when they quit
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class TabCompletionCache implements Listener {
+    private final long timeToLive;
+    private final int maximumSize;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean isEvicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     * @param timeToLive How long an entry is kept in nanoseconds
+     * @param maximumSize The maximum amount of entries
+     * @param clock The current time in nanoseconds
+     */
+    private TabCompletionCache(long timeToLive, int maximumSize, LongSupplier clock) {
+        this.timeToLive = timeToLive;
+        this.maximumSize = maximumSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the remembered tab completions, or calls the executor and remembers its tab completions
+     * @param executor {@link TabExecutor}
+     * @param sender {@link CommandSender}
+     * @param command {@link Command}
+     * @param alias {@link String}
+     * @param args {@link String[]}
+     * @return The tab completions. Never modify this list
+     */
+    @Nullable List<String> complete(@NotNull TabExecutor executor, @NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+        Key key = new Key(executor, senderKey(sender), CommandIndex.key(command.getName()), args);
+        long now = clock.getAsLong();
+        Entry entry = entries.get(key);
+
+        if(entry != null && now - entry.created < timeToLive) {
+            entry.lastUsed = now;
+            hits.increment();
+            return entry.results;
+        }
+
+        misses.increment();
+
+        List<String> results = executor.onTabComplete(sender, command, alias, args);
+        List<String> copy = results != null ? Collections.unmodifiableList(new ArrayList<>(results)) : null;
+
+        entries.put(new Key(executor, key.sender, key.command, args.clone()), new Entry(copy, now));
+
+        if(entries.size() > maximumSize)
+            evict(now);
+
+        return copy;
+    }
+
+    /**
+     * Forgets every tab completion of the sender
+     * @param sender {@link CommandSender}
+     */
+    public void invalidate(@NotNull CommandSender sender) {
+        Object senderKey = senderKey(sender);
+
+        entries.keySet().removeIf(key -> key.sender.equals(senderKey));
+    }
+
+    /**
+     * Forgets every tab completion of the command
+     * @param command The name of the command
+     */
+    public void invalidate(@NotNull String command) {
+        String commandKey = CommandIndex.key(command);
+
+        entries.keySet().removeIf(key -> key.command.equals(commandKey));
+    }
+
+    /**
+     * Forgets every tab completion of the executor
+     * @param executor {@link TabExecutor}
+     */
+    public void invalidate(@NotNull TabExecutor executor) {
+        entries.keySet().removeIf(key -> key.executor == executor);
+    }
+
+    /**
+     * Forgets every tab completion
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Forgets the expired tab completions. They are otherwise only replaced when requested again or evicted
+     */
+    public void cleanUp() {
+        long now = clock.getAsLong();
+
+        entries.values().removeIf(entry -> now - entry.created >= timeToLive);
+    }
+
+    /**
+     * Forgets the tab completions of the player that quit
+     * @param event {@link PlayerQuitEvent} from the {@link EventHandler}
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuitEvent(@NotNull PlayerQuitEvent event) {
+        invalidate(event.getPlayer());
+    }
+
+    /**
+     * Get the amount of remembered tab completions, including the expired ones not yet forgotten
+     * @return int
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get how many times remembered tab completions were returned
+     * @return long
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get how many times the executor had to be called
+     * @return long
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Forgets the expired entries, then the least recently used ones until a quarter below the maximum size, so the next evictions are a while away.
+     * Only one thread evicts at a time, the others carry on
+     */
+    private void evict(long now) {
+        if(!isEvicting.compareAndSet(false, true))
+            return;
+
+        try {
+            entries.values().removeIf(entry -> now - entry.created >= timeToLive);
+
+            int excess = entries.size() - (maximumSize - maximumSize / 4);
+
+            if(excess <= 0)
+                return;
+
+            //Copied first, since other threads keep using the entries while they are sorted
+            long[] used = new long[entries.size()];
+            int count = 0;
+
+            for (Entry entry: entries.values()) {
+                if(count == used.length)
+                    break;
+
+                used[count++] = entry.lastUsed;
+            }
+
+            Arrays.sort(used, 0, count);
+            long threshold = used[Math.min(excess, count) - 1];
+
+            entries.values().removeIf(entry -> entry.lastUsed - threshold <= 0);
+        } finally {
+            isEvicting.set(false);
+        }
+    }
+
+    private static Object senderKey(CommandSender sender) {
+        //Never keep a Player instance alive after they quit
+        return sender instanceof Player ? ((Player) sender).getUniqueId() : sender.getName();
+    }
+
+    private static final class Key {
+        private final TabExecutor executor;
+        private final Object sender;
+        private final String command;
+        private final String[] args;
+        private final int hash;
+
+        private Key(TabExecutor executor, Object sender, String command, String[] args) {
+            this.executor = executor;
+            this.sender = sender;
+            this.command = command;
+            this.args = args;
+            this.hash = 31 * (31 * (31 * System.identityHashCode(executor) + sender.hashCode()) + command.hashCode()) + Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if(this == other)
+                return true;
+            if(!(other instanceof Key))
+                return false;
+
+            Key key = (Key) other;
+
+            return executor == key.executor && hash == key.hash && sender.equals(key.sender) && command.equals(key.command) && Arrays.equals(args, key.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        private final List<String> results;
+        private final long created;
+        private volatile long lastUsed;
+
+        private Entry(List<String> results, long created) {
+            this.results = results;
+            this.created = created;
+            this.lastUsed = created;
+        }
+    }
+
+    /**
+     * The Factory for setting the Tab Completion Cache
+     */
+    public static class Factory {
+        private Duration timeToLive;
+        private int maximumSize;
+        private LongSupplier clock;
+
+        /**
+         * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
+         */
+        private Factory() {
+            timeToLive = Duration.ofSeconds(5);
+            maximumSize = 1024;
+            clock = System::nanoTime;
+        }
+
+        /**
+         * Make a new {@link Factory} instance
+         * @return {@link Factory}
+         */
+        public static Factory make() {
+            return new Factory();
+        }
+
+        /**
+         * Sets how long tab completions are remembered. Defaults to 5 seconds
+         * @param value {@link Duration}
+         * @return The same instance
+         */
+        public Factory setTimeToLive(@NotNull Duration value) {
+            this.timeToLive = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the maximum amount of remembered tab completions. Defaults to 1024
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setMaximumSize(int value) {
+            this.maximumSize = value;
+
+            return this;
+        }
+
+        /**
+         * Sets where the current time in nanoseconds comes from. Package-private, since only the tests need another clock. Defaults to {@link System#nanoTime()}
+         * @param value {@link LongSupplier}
+         * @return The same instance
+         */
+        Factory setClock(@NotNull LongSupplier value) {
+            this.clock = value;
+
+            return this;
+        }
+
+        /**
+         * Creates the new {@link TabCompletionCache} instance
+         * @return {@link TabCompletionCache}
+         */
+        public TabCompletionCache create() {
+            if(timeToLive.isNegative() || timeToLive.isZero() || maximumSize < 1)
+                throw new IllegalArgumentException("Time to live and maximum size have to be positive!");
+
+            return new TabCompletionCache(timeToLive.toNanos(), maximumSize, clock);
+        }
+    }
+}
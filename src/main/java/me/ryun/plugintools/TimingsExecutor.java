@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A built-in {@link TabExecutor} that prints the {@link CommandTimings} report, or resets it with the argument "reset".
+ * It only handles its own command, defined in your plugin.yml, so register it with {@link #registerTo(PluginCommands)}.
+ * Senders without the permission are skipped by {@link PluginCommands} before it is called, checked with its {@link PermissionCache} if one is set,
+ * so they are never offered "reset" either. The executor doesn't check the permission again, so only call it through {@link PluginCommands}
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class TimingsExecutor implements TabExecutor, TabCandidates, RequiredPermission {
+    private final CommandTimings timings;
+    private final String permission;
+    private final String name;
+    private final String[] aliases;
+
+    /**
+     * Create a new {@link TimingsExecutor}
+     * @param timings The {@link CommandTimings} to print
+     * @param permission The permission needed to use it
+     * @param name The name of the command as defined in the plugin.yml
+     * @param aliases The aliases of the command
+     */
+    public TimingsExecutor(@NotNull CommandTimings timings, @NotNull String permission, @NotNull String name, @NotNull String... aliases) {
+        this.timings = timings;
+        this.permission = permission;
+        this.name = name.toLowerCase(Locale.ROOT);
+        this.aliases = new String[aliases.length];
+
+        for(int i = 0; i < aliases.length; i++)
+            this.aliases[i] = aliases[i].toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Registers this executor under its name and aliases
+     * @param commands {@link PluginCommands}
+     * @return If the executor was added
+     */
+    public boolean registerTo(@NotNull PluginCommands commands) {
+        return commands.register(this, name, aliases);
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        //Never swallow the commands of other executors
+        if(!matches(command))
+            return false;
+
+        if(args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+            timings.reset();
+            sender.sendMessage("Command timings were reset.");
+            return true;
+        }
+
+        for (String line: timings.report())
+            sender.sendMessage(line);
+
+        return true;
+    }
+
+    @Override
+    public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if(!matches(command))
+            return null;
+
+        return args.length == 1 && "reset".regionMatches(true, 0, args[0], 0, args[0].length()) ? List.of("reset") : List.of();
+    }
+
+    @Override
+    public @NotNull String[][] getTabCandidates() {
+        return new String[][] {{"reset"}};
+    }
+
+    @Override
+    public @NotNull String getRequiredPermission() {
+        return permission;
+    }
+
+    private boolean matches(Command command) {
+        String commandName = command.getName();
+
+        if(commandName.equalsIgnoreCase(name))
+            return true;
+
+        for (String alias: aliases) {
+            if(commandName.equalsIgnoreCase(alias))
+                return true;
+        }
+
+        return false;
+    }
+}
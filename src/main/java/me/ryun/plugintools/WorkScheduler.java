@@ -0,0 +1,422 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Spreads main thread work across ticks. Every tick, queued jobs are run until the budget of that tick is used up, higher {@link Priority} first,
+ * and whatever is left continues on the next tick. Jobs can be submitted from any thread, so a command can queue its work instead of freezing the server
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class WorkScheduler {
+    /**
+     * The order the queues are worked on. A lower priority only runs when the queues above it are empty
+     */
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    /**
+     * A job that is done a little at a time
+     */
+    @FunctionalInterface
+    public interface IncrementalJob {
+        /**
+         * Does the next small piece of the job. Keep each step well below the budget of a tick
+         * @return If the job is finished
+         */
+        boolean step();
+    }
+
+    private final JavaPlugin plugin;
+    private final long budgetNanos;
+    private final Queue<Job>[] queues;
+    private final ConcurrentHashMap<Object, Job> keyed;
+    private final AtomicInteger backlog;
+    private final LongAdder completed;
+    private final LongAdder coalesced;
+    private final LongAdder failed;
+    private BukkitTask task;
+    private volatile long lastTickNanos;
+    private volatile long maximumTickNanos;
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     * @param plugin The {@link JavaPlugin} that owns the repeating task
+     * @param budgetNanos How long the jobs can run each tick
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private WorkScheduler(JavaPlugin plugin, long budgetNanos) {
+        this.plugin = plugin;
+        this.budgetNanos = budgetNanos;
+        this.queues = new Queue[Priority.values().length];
+        this.keyed = new ConcurrentHashMap<>();
+        this.backlog = new AtomicInteger();
+        this.completed = new LongAdder();
+        this.coalesced = new LongAdder();
+        this.failed = new LongAdder();
+
+        for(int i = 0; i < queues.length; i++)
+            queues[i] = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Queues a task that runs once
+     * @param priority {@link Priority}
+     * @param task {@link Runnable}
+     * @return A {@link CompletableFuture} completed on the server thread once the task ran
+     */
+    public @NotNull CompletableFuture<Void> submit(@NotNull Priority priority, @NotNull Runnable task) {
+        return enqueue(new Job(priority, null, once(task)));
+    }
+
+    /**
+     * Queues a task that runs once. If a task with the same key is still waiting, it is replaced by this one instead, so only the latest runs
+     * @param priority {@link Priority}
+     * @param key Identifies duplicate tasks, i.e. the player whose scoreboard is rebuilt
+     * @param task {@link Runnable}
+     * @return A {@link CompletableFuture} completed on the server thread once the task ran. The same one for every task that was replaced
+     */
+    public @NotNull CompletableFuture<Void> submit(@NotNull Priority priority, @NotNull Object key, @NotNull Runnable task) {
+        return submitIncremental(priority, key, once(task));
+    }
+
+    /**
+     * Queues a job that is done a little at a time, across as many ticks as it needs
+     * @param priority {@link Priority}
+     * @param job {@link IncrementalJob}
+     * @return A {@link CompletableFuture} completed on the server thread once the job is finished
+     */
+    public @NotNull CompletableFuture<Void> submitIncremental(@NotNull Priority priority, @NotNull IncrementalJob job) {
+        return enqueue(new Job(priority, null, job));
+    }
+
+    /**
+     * Queues a job that is done a little at a time. If a job with the same key hasn't started yet, it is replaced by this one instead
+     * @param priority {@link Priority}
+     * @param key Identifies duplicate jobs
+     * @param job {@link IncrementalJob}
+     * @return A {@link CompletableFuture} completed on the server thread once the job is finished. The same one for every job that was replaced
+     */
+    public @NotNull CompletableFuture<Void> submitIncremental(@NotNull Priority priority, @NotNull Object key, @NotNull IncrementalJob job) {
+        Job[] created = new Job[1];
+
+        Job result = keyed.compute(key, (ignored, waiting) -> {
+            //Replace it only if it hasn't started, otherwise half of it would be done twice
+            if(waiting != null && !waiting.isStarted) {
+                waiting.work = job;
+                return waiting;
+            }
+
+            created[0] = new Job(priority, key, job);
+            return created[0];
+        });
+
+        if(created[0] == null) {
+            coalesced.increment();
+            return result.future;
+        }
+
+        return enqueue(created[0]);
+    }
+
+    /**
+     * Queues an item by item job, i.e. the blocks of a region. Each item is one step
+     * @param priority {@link Priority}
+     * @param items The items. Only iterated on the server thread
+     * @param action What to do with each item
+     * @return A {@link CompletableFuture} completed on the server thread once every item is done
+     * @param <T> The type of the items
+     */
+    public <T> @NotNull CompletableFuture<Void> submitBatch(@NotNull Priority priority, @NotNull Iterable<T> items, @NotNull Consumer<? super T> action) {
+        Iterator<?>[] iterator = new Iterator<?>[1];
+
+        return submitIncremental(priority, () -> {
+            if(iterator[0] == null)
+                iterator[0] = items.iterator();
+
+            @SuppressWarnings("unchecked")
+            Iterator<T> remaining = (Iterator<T>) iterator[0];
+
+            if(remaining.hasNext())
+                action.accept(remaining.next());
+
+            return !remaining.hasNext();
+        });
+    }
+
+    /**
+     * Starts running the jobs every tick
+     */
+    public void start() {
+        if(task == null)
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+    }
+
+    /**
+     * Stops running the jobs. The jobs that are left stay queued until {@link #start()} is called again
+     */
+    public void stop() {
+        if(task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Get the amount of jobs that are waiting or not finished
+     * @return int
+     */
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * Get how long the oldest job that is still waiting has been queued for
+     * @return {@link Duration}
+     */
+    public @NotNull Duration getLag() {
+        long now = System.nanoTime();
+        long oldest = now;
+
+        for (Queue<Job> queue: queues) {
+            Job head = queue.peek();
+
+            if(head != null && head.submitted - oldest < 0)
+                oldest = head.submitted;
+        }
+
+        return Duration.ofNanos(now - oldest);
+    }
+
+    /**
+     * Get how long the jobs ran on the last tick
+     * @return {@link Duration}
+     */
+    public @NotNull Duration getLastTick() {
+        return Duration.ofNanos(lastTickNanos);
+    }
+
+    /**
+     * Get the budget of each tick
+     * @return {@link Duration}
+     */
+    public @NotNull Duration getBudget() {
+        return Duration.ofNanos(budgetNanos);
+    }
+
+    /**
+     * Get a summary of the backlog, the lag and the ticks
+     * @return The lines of the report
+     */
+    public @NotNull List<String> report() {
+        List<String> lines = new ArrayList<>();
+
+        lines.add("Backlog: " + backlog.get() + " jobs, oldest waiting " + getLag().toMillis() + "ms");
+
+        for (Priority priority: Priority.values())
+            lines.add("  " + priority + ": " + queues[priority.ordinal()].size());
+
+        lines.add(String.format(Locale.ROOT, "Ticks: last %.3fms, max %.3fms of %.3fms", lastTickNanos / 1e6, maximumTickNanos / 1e6, budgetNanos / 1e6));
+        lines.add("Jobs: " + completed.sum() + " completed, " + coalesced.sum() + " coalesced, " + failed.sum() + " failed");
+
+        return lines;
+    }
+
+    private CompletableFuture<Void> enqueue(Job job) {
+        backlog.incrementAndGet();
+        queues[job.priority.ordinal()].add(job);
+
+        return job.future;
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+
+        //Always do at least one step so a job that is too big still finishes eventually
+        do {
+            Job job = poll();
+
+            if(job == null)
+                break;
+
+            run(job);
+        } while(System.nanoTime() - deadline < 0);
+
+        long elapsed = System.nanoTime() - start;
+        lastTickNanos = elapsed;
+
+        if(elapsed > maximumTickNanos)
+            maximumTickNanos = elapsed;
+    }
+
+    private Job poll() {
+        for (Queue<Job> queue: queues) {
+            Job job = queue.poll();
+
+            if(job != null)
+                return job;
+        }
+
+        return null;
+    }
+
+    private void run(Job job) {
+        if(!job.isStarted && job.key != null)
+            //From now on, the same key queues a new job
+            keyed.computeIfPresent(job.key, (ignored, waiting) -> {
+                job.isStarted = true;
+                return waiting == job ? null : waiting;
+            });
+
+        job.isStarted = true;
+
+        boolean isFinished;
+
+        try {
+            isFinished = job.work.step();
+        } catch (Throwable e) {
+            //Errors too, otherwise the job would never leave the backlog and its future would never complete
+            plugin.getLogger().log(Level.WARNING, "A scheduled job failed", e);
+            failed.increment();
+            backlog.decrementAndGet();
+            job.future.completeExceptionally(e);
+
+            return;
+        }
+
+        if(!isFinished) {
+            //Back of the same queue, so jobs of the same priority take turns
+            queues[job.priority.ordinal()].add(job);
+
+            return;
+        }
+
+        completed.increment();
+        backlog.decrementAndGet();
+        job.future.complete(null);
+    }
+
+    private static IncrementalJob once(Runnable task) {
+        return () -> {
+            task.run();
+
+            return true;
+        };
+    }
+
+    /**
+     * A queued job
+     */
+    private static final class Job {
+        private final Priority priority;
+        private final Object key;
+        private final long submitted;
+        private final CompletableFuture<Void> future;
+        private volatile IncrementalJob work;
+        private volatile boolean isStarted;
+
+        private Job(Priority priority, Object key, IncrementalJob work) {
+            this.priority = priority;
+            this.key = key;
+            this.submitted = System.nanoTime();
+            this.future = new CompletableFuture<>();
+            this.work = work;
+        }
+    }
+
+    /**
+     * The Factory for setting the Work Scheduler
+     */
+    public static class Factory {
+        private JavaPlugin plugin;
+        private Duration budget;
+
+        /**
+         * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
+         */
+        private Factory() {
+            plugin = null;
+            budget = Duration.ofMillis(5);
+        }
+
+        /**
+         * Make a new {@link Factory} instance
+         * @return {@link Factory}
+         */
+        public static Factory make() {
+            return new Factory();
+        }
+
+        /**
+         * Sets the {@link JavaPlugin} value
+         * @param value {@link JavaPlugin}
+         * @return The same instance
+         */
+        public Factory setPlugin(@NotNull JavaPlugin value) {
+            this.plugin = value;
+
+            return this;
+        }
+
+        /**
+         * Sets how long the jobs can run each tick. A tick is 50 milliseconds in total. Defaults to 5 milliseconds
+         * @param value {@link Duration}
+         * @return The same instance
+         */
+        public Factory setBudget(@NotNull Duration value) {
+            this.budget = value;
+
+            return this;
+        }
+
+        /**
+         * Creates the new {@link WorkScheduler} instance. Call {@link WorkScheduler#start()} to start running the jobs
+         * @return {@link WorkScheduler}
+         */
+        public WorkScheduler create() {
+            Objects.requireNonNull(plugin, "Plugin value has to be set!");
+            Objects.requireNonNull(budget, "Budget value has to be set!");
+
+            if(budget.isNegative() || budget.isZero())
+                throw new IllegalArgumentException("Budget has to be positive!");
+
+            return new WorkScheduler(plugin, budget.toNanos());
+        }
+    }
+}
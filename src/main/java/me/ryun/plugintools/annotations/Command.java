@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method that executes a command. The annotation processor generates a {@code <Class>_Dispatcher} {@link org.bukkit.command.TabExecutor}
+ * next to the class, which calls the method directly without any reflection.
+ * <p>
+ * The method takes a {@link org.bukkit.command.CommandSender}, or a subtype like {@link org.bukkit.entity.Player} which skips every other sender,
+ * and the {@code String[]} arguments. It returns a boolean like {@link org.bukkit.command.CommandExecutor#onCommand}, or nothing which counts as true
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Command {
+    /**
+     * The name of the command as defined in the plugin.yml
+     * @return String
+     */
+    String value();
+
+    /**
+     * The aliases of the command
+     * @return The aliases
+     */
+    String[] aliases() default {};
+}
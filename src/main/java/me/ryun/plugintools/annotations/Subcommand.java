@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method that executes a subcommand, i.e. {@code set} of {@code /warp set}. It receives the arguments after the subcommand.
+ * The method takes the same parameters and returns the same type as a {@link Command} method
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Subcommand {
+    /**
+     * The name of the command the subcommand belongs to
+     * @return String
+     */
+    String command();
+
+    /**
+     * The name of the subcommand
+     * @return String
+     */
+    String value();
+
+    /**
+     * The aliases of the subcommand
+     * @return The aliases
+     */
+    String[] aliases() default {};
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.commands;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses an argument of a {@link CommandTree} into a value, and suggests the values it can be tab completed to
+ * @param <T> The type of the parsed value
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public interface ArgumentType<T> {
+    /**
+     * Parses the argument
+     * @param sender {@link CommandSender}
+     * @param token The argument as typed, or every remaining argument joined by spaces if {@link #isGreedy()}
+     * @return The parsed value
+     * @throws IllegalArgumentException If the argument is invalid. The message is sent to the sender
+     */
+    @NotNull T parse(@NotNull CommandSender sender, @NotNull String token);
+
+    /**
+     * Adds the values that start with the prefix to the results
+     * @param sender {@link CommandSender}
+     * @param prefix What was typed so far
+     * @param results Where the suggestions are added
+     */
+    default void suggest(@NotNull CommandSender sender, @NotNull String prefix, @NotNull List<String> results) {}
+
+    /**
+     * Does this argument consume every remaining argument?
+     * @return boolean
+     */
+    default boolean isGreedy() {
+        return false;
+    }
+
+    /**
+     * A single word
+     * @return {@link ArgumentType}
+     */
+    static @NotNull ArgumentType<String> word() {
+        return (sender, token) -> token;
+    }
+
+    /**
+     * Every remaining argument joined by spaces
+     * @return {@link ArgumentType}
+     */
+    static @NotNull ArgumentType<String> greedyString() {
+        return new ArgumentType<>() {
+            @Override
+            public @NotNull String parse(@NotNull CommandSender sender, @NotNull String token) {
+                return token;
+            }
+
+            @Override
+            public boolean isGreedy() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Any whole number
+     * @return {@link ArgumentType}
+     */
+    static @NotNull ArgumentType<Integer> integer() {
+        return integer(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * A whole number between the minimum and maximum, inclusive
+     * @param minimum int
+     * @param maximum int
+     * @return {@link ArgumentType}
+     */
+    static @NotNull ArgumentType<Integer> integer(int minimum, int maximum) {
+        return (sender, token) -> {
+            int value;
+
+            try {
+                value = Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("'" + token + "' is not a whole number.");
+            }
+
+            if(value < minimum || value > maximum)
+                throw new IllegalArgumentException(value + " has to be between " + minimum + " and " + maximum + ".");
+
+            return value;
+        };
+    }
+
+    /**
+     * Any number
+     * @return {@link ArgumentType}
+     */
+    static @NotNull ArgumentType<Double> decimal() {
+        return (sender, token) -> {
+            try {
+                double value = Double.parseDouble(token);
+
+                if(!Double.isFinite(value))
+                    throw new NumberFormatException();
+
+                return value;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("'" + token + "' is not a number.");
+            }
+        };
+    }
+
+    /**
+     * Either true or false
+     * @return {@link ArgumentType}
+     */
+    static @NotNull ArgumentType<Boolean> bool() {
+        return choice(Boolean.class, "true", "false");
+    }
+
+    /**
+     * One of the values, ignoring case
+     * @param values The allowed values
+     * @return {@link ArgumentType}
+     */
+    static @NotNull ArgumentType<String> choice(@NotNull String... values) {
+        return choice(String.class, values);
+    }
+
+    /**
+     * The name of an online player
+     * @return {@link ArgumentType}
+     */
+    static @NotNull ArgumentType<Player> player() {
+        return new ArgumentType<>() {
+            @Override
+            public @NotNull Player parse(@NotNull CommandSender sender, @NotNull String token) {
+                Player player = Bukkit.getPlayerExact(token);
+
+                if(player == null)
+                    throw new IllegalArgumentException("Player '" + token + "' is not online.");
+
+                return player;
+            }
+
+            @Override
+            public void suggest(@NotNull CommandSender sender, @NotNull String prefix, @NotNull List<String> results) {
+                for (Player player: Bukkit.getOnlinePlayers()) {
+                    if(player.getName().regionMatches(true, 0, prefix, 0, prefix.length()))
+                        results.add(player.getName());
+                }
+            }
+        };
+    }
+
+    private static <T> ArgumentType<T> choice(Class<T> type, String... values) {
+        String[] choices = values.clone();
+
+        return new ArgumentType<>() {
+            @Override
+            public @NotNull T parse(@NotNull CommandSender sender, @NotNull String token) {
+                for (String choice: choices) {
+                    if(choice.equalsIgnoreCase(token))
+                        return type == Boolean.class ? type.cast(Boolean.valueOf(choice)) : type.cast(choice);
+                }
+
+                throw new IllegalArgumentException("'" + token + "' has to be one of " + String.join(", ", choices).toLowerCase(Locale.ROOT) + ".");
+            }
+
+            @Override
+            public void suggest(@NotNull CommandSender sender, @NotNull String prefix, @NotNull List<String> results) {
+                for (String choice: choices) {
+                    if(choice.regionMatches(true, 0, prefix, 0, prefix.length()))
+                        results.add(choice);
+                }
+            }
+        };
+    }
+}
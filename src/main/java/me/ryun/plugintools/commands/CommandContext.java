@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.commands;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The sender and the parsed arguments of a {@link CommandTree} being executed. Each argument is parsed only once, before the {@link CommandHandler} is called
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class CommandContext {
+    private final CommandSender sender;
+    private final Command command;
+    private final String label;
+    private final String[] args;
+    private final String[] names;
+    private final Object[] values;
+    private int size;
+
+    /**
+     * Create a new empty {@link CommandContext}
+     * @param sender {@link CommandSender}
+     * @param command {@link Command}
+     * @param label {@link String}
+     * @param args The raw arguments
+     */
+    CommandContext(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        this.sender = sender;
+        this.command = command;
+        this.label = label;
+        this.args = args;
+        this.names = new String[args.length];
+        this.values = new Object[args.length];
+        this.size = 0;
+    }
+
+    /**
+     * Adds a parsed argument
+     * @param name The name of the argument
+     * @param value The parsed value
+     */
+    void put(@NotNull String name, @NotNull Object value) {
+        names[size] = name;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Get a parsed argument
+     * @param name The name of the argument in the {@link CommandTree}
+     * @return The parsed value
+     * @param <T> The type of the {@link ArgumentType}
+     * @throws IllegalArgumentException If there is no argument with the name
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @NotNull T get(@NotNull String name) {
+        for(int i = 0; i < size; i++) {
+            if(names[i].equals(name))
+                return (T) values[i];
+        }
+
+        throw new IllegalArgumentException("No argument named '" + name + "'!");
+    }
+
+    /**
+     * Get a parsed argument, or the default value if the argument was not given
+     * @param name The name of the argument in the {@link CommandTree}
+     * @param defaultValue The value if the argument was not given
+     * @return The parsed value
+     * @param <T> The type of the {@link ArgumentType}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @Nullable T getOrDefault(@NotNull String name, @Nullable T defaultValue) {
+        for(int i = 0; i < size; i++) {
+            if(names[i].equals(name))
+                return (T) values[i];
+        }
+
+        return defaultValue;
+    }
+
+    /**
+     * Get the sender of the command
+     * @return {@link CommandSender}
+     */
+    public @NotNull CommandSender getSender() {
+        return sender;
+    }
+
+    /**
+     * Get the executed command
+     * @return {@link Command}
+     */
+    public @NotNull Command getCommand() {
+        return command;
+    }
+
+    /**
+     * Get the label or alias used to execute the command
+     * @return String
+     */
+    public @NotNull String getLabel() {
+        return label;
+    }
+
+    /**
+     * Get the raw arguments
+     * @return String[]
+     */
+    public @NotNull String[] getArgs() {
+        return args;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * What a {@link CommandTree} does when it is executed
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * Executes the command with its already parsed arguments
+     * @param context {@link CommandContext}
+     * @return If the command was executed. If false, the usage from the plugin.yml is sent like a normal command
+     */
+    boolean execute(@NotNull CommandContext context);
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.commands;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A declarative builder for a command made of literal and typed argument nodes, each with an optional permission and {@link CommandHandler}.
+ * Once done, {@link #compile()} turns it into a {@link CompiledCommand} that can be added to a {@link me.ryun.plugintools.PluginCommands}
+ * <pre>{@code
+ * CommandTree.command("warp", "w")
+ *     .then(CommandTree.literal("set")
+ *         .permission("warps.set")
+ *         .then(CommandTree.argument("name", ArgumentType.word())
+ *             .executes(context -> setWarp(context.getSender(), context.get("name")))))
+ *     .then(CommandTree.argument("name", ArgumentType.word())
+ *         .executes(context -> warp(context.getSender(), context.get("name"))))
+ *     .compile();
+ * }</pre>
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class CommandTree {
+    private final String name;
+    private final String[] aliases;
+    private final ArgumentType<?> type;
+    private final List<CommandTree> children = new ArrayList<>();
+    private String permission = null;
+    private CommandHandler handler = null;
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     * @param name The name of the command, literal or argument
+     * @param aliases The aliases of the command
+     * @param type The type of the argument or null if it is a literal
+     */
+    private CommandTree(String name, String[] aliases, ArgumentType<?> type) {
+        this.name = name;
+        this.aliases = aliases;
+        this.type = type;
+    }
+
+    /**
+     * Make the root of a command. Its name is not one of the arguments
+     * @param name The name of the command as defined in the plugin.yml
+     * @param aliases The aliases of the command
+     * @return {@link CommandTree}
+     */
+    public static @NotNull CommandTree command(@NotNull String name, @NotNull String... aliases) {
+        return new CommandTree(name, aliases.clone(), null);
+    }
+
+    /**
+     * Make an argument that has to be typed exactly, ignoring case
+     * @param name The word to type
+     * @return {@link CommandTree}
+     */
+    public static @NotNull CommandTree literal(@NotNull String name) {
+        return new CommandTree(name, new String[0], null);
+    }
+
+    /**
+     * Make an argument that is parsed by the {@link ArgumentType}
+     * @param name The name used to get the value from the {@link CommandContext}
+     * @param type {@link ArgumentType}
+     * @return {@link CommandTree}
+     */
+    public static @NotNull CommandTree argument(@NotNull String name, @NotNull ArgumentType<?> type) {
+        return new CommandTree(name, new String[0], Objects.requireNonNull(type, "Argument type has to be set!"));
+    }
+
+    /**
+     * Adds an argument after this one. Literals are tried before arguments, and arguments are tried by order
+     * @param child {@link CommandTree}
+     * @return The same instance
+     */
+    public @NotNull CommandTree then(@NotNull CommandTree child) {
+        children.add(child);
+
+        return this;
+    }
+
+    /**
+     * Sets the permission needed to use this argument and the ones after it. Without it, the argument is treated as if it didn't exist
+     * @param value The permission
+     * @return The same instance
+     */
+    public @NotNull CommandTree permission(@NotNull String value) {
+        this.permission = value;
+
+        return this;
+    }
+
+    /**
+     * Sets what happens when the command ends at this argument
+     * @param value {@link CommandHandler}
+     * @return The same instance
+     */
+    public @NotNull CommandTree executes(@NotNull CommandHandler value) {
+        this.handler = value;
+
+        return this;
+    }
+
+    /**
+     * Compiles the tree into a {@link CompiledCommand}. Changing the tree afterwards doesn't change the compiled command
+     * @return {@link CompiledCommand}
+     */
+    public @NotNull CompiledCommand compile() {
+        return new CompiledCommand(name, aliases, compileNode());
+    }
+
+    private CompiledCommand.Node compileNode() {
+        List<CompiledCommand.Node> literals = new ArrayList<>();
+        List<CompiledCommand.Node> arguments = new ArrayList<>();
+
+        for (CommandTree child: children) {
+            if(child.type == null)
+                literals.add(child.compileNode());
+            else
+                arguments.add(child.compileNode());
+        }
+
+        return new CompiledCommand.Node(name, type, permission, handler, literals, arguments);
+    }
+}
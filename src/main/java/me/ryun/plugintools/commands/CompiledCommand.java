@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.commands;
+
+import me.ryun.plugintools.PermissionCache;
+import me.ryun.plugintools.PluginCommands;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A {@link CommandTree} compiled into a graph that is walked once per command. Each argument is matched and parsed a single time,
+ * and the same graph answers the tab completions, so executing and tab completing never disagree
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class CompiledCommand implements TabExecutor {
+    private final String name;
+    private final String[] aliases;
+    private final Node root;
+    private volatile PluginCommands commands = null;
+
+    /**
+     * Create a new {@link CompiledCommand}. Use {@link CommandTree#compile()} instead
+     * @param name The name of the command
+     * @param aliases The aliases of the command
+     * @param root The compiled root node
+     */
+    CompiledCommand(@NotNull String name, @NotNull String[] aliases, @NotNull Node root) {
+        this.name = name.toLowerCase(Locale.ROOT);
+        this.aliases = new String[aliases.length];
+        this.root = root;
+
+        for(int i = 0; i < aliases.length; i++)
+            this.aliases[i] = aliases[i].toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Registers this command under its name and aliases. The permissions of the tree are then checked with the {@link PermissionCache} of the list if it has one
+     * @param commands {@link PluginCommands}
+     * @return If the command was added
+     */
+    public boolean registerTo(@NotNull PluginCommands commands) {
+        this.commands = commands;
+
+        return commands.register(this, name, aliases);
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        PluginCommands commands = this.commands;
+
+        if(!matches(command) || !root.isPermitted(sender, commands))
+            return false;
+
+        CommandContext context = new CommandContext(sender, command, label, args);
+        Node node = root;
+        int position = 0;
+
+        while(position < args.length) {
+            Node next = node.literal(sender, args[position], commands);
+
+            if(next != null) {
+                node = next;
+                position++;
+                continue;
+            }
+
+            String error = null;
+
+            for (Node argument: node.arguments) {
+                if(!argument.isPermitted(sender, commands))
+                    continue;
+
+                try {
+                    context.put(argument.name, argument.type.parse(sender, argument.token(args, position)));
+                    next = argument;
+                    break;
+                } catch (IllegalArgumentException e) {
+                    if(error == null)
+                        error = e.getMessage();
+                }
+            }
+
+            if(next == null) {
+                if(error == null)
+                    return false;
+
+                sender.sendMessage(error);
+                return true;
+            }
+
+            node = next;
+            position = node.type.isGreedy() ? args.length : position + 1;
+        }
+
+        return node.handler != null && node.handler.execute(context);
+    }
+
+    @Override
+    public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        PluginCommands commands = this.commands;
+
+        if(!matches(command) || !root.isPermitted(sender, commands))
+            return null;
+
+        List<String> results = new ArrayList<>();
+        Node node = root;
+        int last = args.length - 1;
+
+        for(int position = 0; position < last; position++) {
+            Node next = node.literal(sender, args[position], commands);
+
+            if(next == null) {
+                for (Node argument: node.arguments) {
+                    if(!argument.isPermitted(sender, commands))
+                        continue;
+
+                    //A greedy argument completes everything after it
+                    if(argument.type.isGreedy()) {
+                        argument.type.suggest(sender, argument.token(args, position), results);
+                        return results;
+                    }
+
+                    try {
+                        argument.type.parse(sender, args[position]);
+                        next = argument;
+                        break;
+                    } catch (IllegalArgumentException ignored) {}
+                }
+            }
+
+            if(next == null)
+                return results;
+
+            node = next;
+        }
+
+        String prefix = last >= 0 ? args[last] : "";
+
+        for (Node literal: node.literalOrder) {
+            if(literal.isPermitted(sender, commands) && literal.name.regionMatches(true, 0, prefix, 0, prefix.length()))
+                results.add(literal.name);
+        }
+
+        for (Node argument: node.arguments) {
+            if(argument.isPermitted(sender, commands))
+                argument.type.suggest(sender, prefix, results);
+        }
+
+        return results;
+    }
+
+    /**
+     * Get the name of the command
+     * @return String
+     */
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /**
+     * Get the aliases of the command
+     * @return String[]
+     */
+    public @NotNull String[] getAliases() {
+        return aliases.clone();
+    }
+
+    private boolean matches(Command command) {
+        String commandName = command.getName();
+
+        if(commandName.equalsIgnoreCase(name))
+            return true;
+
+        for (String alias: aliases) {
+            if(commandName.equalsIgnoreCase(alias))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * An immutable node of the compiled graph
+     */
+    static final class Node {
+        private final String name;
+        private final ArgumentType<?> type;
+        private final String permission;
+        private final int permissionNode;
+        private final CommandHandler handler;
+        private final Map<String, Node> literals;
+        private final Node[] literalOrder;
+        private final Node[] arguments;
+
+        Node(String name, ArgumentType<?> type, String permission, CommandHandler handler, List<Node> literals, List<Node> arguments) {
+            this.name = name;
+            this.type = type;
+            this.permission = permission;
+            this.permissionNode = permission != null ? PermissionCache.getNode(permission) : -1;
+            this.handler = handler;
+            this.literals = new HashMap<>();
+            this.literalOrder = literals.toArray(new Node[0]);
+            this.arguments = arguments.toArray(new Node[0]);
+
+            for (Node literal: literalOrder)
+                this.literals.putIfAbsent(literal.name.toLowerCase(Locale.ROOT), literal);
+        }
+
+        private Node literal(CommandSender sender, String token, PluginCommands commands) {
+            if(literals.isEmpty())
+                return null;
+
+            Node literal = literals.get(token.toLowerCase(Locale.ROOT));
+
+            return literal != null && literal.isPermitted(sender, commands) ? literal : null;
+        }
+
+        private boolean isPermitted(CommandSender sender, PluginCommands commands) {
+            if(permission == null)
+                return true;
+
+            return commands != null ? commands.hasPermission(sender, permissionNode) : sender.hasPermission(permission);
+        }
+
+        private String token(String[] args, int position) {
+            if(!type.isGreedy())
+                return args[position];
+
+            return String.join(" ", Arrays.asList(args).subList(position, args.length));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.exceptions;
+
+/**
+ * A RuntimeException for when a class, method or field can't be found or accessed by {@link me.ryun.plugintools.reflection.CraftBukkitAccessors}
+ */
+public class AccessorNotFoundException extends RuntimeException {
+    public AccessorNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
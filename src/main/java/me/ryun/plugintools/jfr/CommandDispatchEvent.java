@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded by Java Flight Recorder for every executor a {@link me.ryun.plugintools.PluginCommands} calls. Nothing is recorded or copied unless a recording enables it
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@Name("me.ryun.plugintools.CommandDispatch")
+@Label("Command Dispatch")
+@Category({"PluginTools", "Commands"})
+@Description("A command executor called by PluginCommands")
+@StackTrace(false)
+public final class CommandDispatchEvent extends Event {
+    @Label("Executor")
+    private Class<?> executor;
+    @Label("Command")
+    private String command;
+    @Label("Label")
+    private String label;
+    @Label("Argument Count")
+    private int argumentCount;
+    @Label("Handled")
+    @Description("If the executor returned true")
+    private boolean handled;
+
+    /**
+     * Sets the fields and commits the event if it's enabled and long enough for the recording
+     * @param executor The class of the executor
+     * @param command The command name
+     * @param label The label or alias used
+     * @param argumentCount The amount of arguments
+     * @param handled If the executor returned true
+     */
+    public void commit(Class<?> executor, String command, String label, int argumentCount, boolean handled) {
+        if(!shouldCommit())
+            return;
+
+        this.executor = executor;
+        this.command = command;
+        this.label = label;
+        this.argumentCount = argumentCount;
+        this.handled = handled;
+        commit();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder when {@link me.ryun.plugintools.CraftBukkitFinder} looks for the CraftBukkit package. Only the first scan does any work
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@Name("me.ryun.plugintools.CraftBukkitScan")
+@Label("CraftBukkit Scan")
+@Category("PluginTools")
+@Description("CraftBukkitFinder looking for the CraftBukkit package")
+public final class CraftBukkitScanEvent extends Event {
+    @Label("Method")
+    @Description("How the package was found: Server, Cache or Scan")
+    private String method;
+    @Label("Result")
+    private String result;
+    @Label("Attempts")
+    @Description("The amount of packages tested with the class loader")
+    private int attempts;
+    @Label("Success")
+    private boolean success;
+
+    /**
+     * Sets the fields and commits the event if it's enabled and long enough for the recording
+     * @param method How the package was found
+     * @param result The package or null if it wasn't found
+     * @param attempts The amount of packages tested with the class loader
+     */
+    public void commit(String method, String result, int attempts) {
+        if(!shouldCommit())
+            return;
+
+        this.method = method;
+        this.result = result;
+        this.attempts = attempts;
+        this.success = result != null;
+        commit();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder when a {@link me.ryun.plugintools.PluginInfo} is created
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@Name("me.ryun.plugintools.PluginInfoLoad")
+@Label("Plugin Info Load")
+@Category("PluginTools")
+@Description("PluginInfo loading the values of a plugin.yml")
+public final class PluginInfoLoadEvent extends Event {
+    @Label("Plugin")
+    private String plugin;
+    @Label("Compiled")
+    @Description("If the values were compiled at build time instead of parsed")
+    private boolean compiled;
+    @Label("Keys")
+    private int keys;
+
+    /**
+     * Sets the fields and commits the event if it's enabled and long enough for the recording
+     * @param plugin The name of the plugin
+     * @param compiled If the values were compiled at build time
+     * @param keys The amount of keys at the top of the plugin.yml
+     */
+    public void commit(String plugin, boolean compiled, int keys) {
+        if(!shouldCommit())
+            return;
+
+        this.plugin = plugin;
+        this.compiled = compiled;
+        this.keys = keys;
+        commit();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recorded by Java Flight Recorder when {@link me.ryun.plugintools.ServerShutdownOnQuit} shuts the server down,
+ * or {@link me.ryun.plugintools.ServerHibernation} puts it to sleep or wakes it up
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@Name("me.ryun.plugintools.ServerState")
+@Label("Server State")
+@Category("PluginTools")
+@Description("The server shutting down, hibernating or waking up because of players")
+public final class ServerStateEvent extends Event {
+    /**
+     * ServerShutdownOnQuit stopped the server
+     */
+    public static final String SHUTDOWN = "Shutdown";
+    /**
+     * ServerHibernation put the server to sleep
+     */
+    public static final String HIBERNATE = "Hibernate";
+    /**
+     * ServerHibernation woke the server up
+     */
+    public static final String WAKE = "Wake";
+
+    @Label("Action")
+    private String action;
+    @Label("Player")
+    @Description("The player who quit or joined, if any")
+    private String player;
+    @Label("Chunks Unloaded")
+    private int chunksUnloaded;
+
+    /**
+     * Sets the fields and commits the event if it's enabled and long enough for the recording
+     * @param action One of the action constants
+     * @param player The player who quit or joined, or null
+     * @param chunksUnloaded The amount of chunks unloaded
+     */
+    public void commit(String action, String player, int chunksUnloaded) {
+        if(!shouldCommit())
+            return;
+
+        this.action = action;
+        this.player = player;
+        this.chunksUnloaded = chunksUnloaded;
+        commit();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded by Java Flight Recorder for every executor a {@link me.ryun.plugintools.PluginCommands} tab completes with. Nothing is recorded or copied unless a recording enables it
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@Name("me.ryun.plugintools.TabComplete")
+@Label("Tab Complete")
+@Category({"PluginTools", "Commands"})
+@Description("A command executor tab completed by PluginCommands")
+@StackTrace(false)
+public final class TabCompleteEvent extends Event {
+    /**
+     * Completed from the candidates of a TabCandidates executor without calling it
+     */
+    public static final String SOURCE_CANDIDATES = "Candidates";
+    /**
+     * Completed through the TabCompletionCache
+     */
+    public static final String SOURCE_CACHE = "Cache";
+    /**
+     * Completed by calling the executor
+     */
+    public static final String SOURCE_EXECUTOR = "Executor";
+
+    @Label("Executor")
+    private Class<?> executor;
+    @Label("Command")
+    private String command;
+    @Label("Argument Count")
+    private int argumentCount;
+    @Label("Completions")
+    private int completions;
+    @Label("Source")
+    @Description("Where the completions came from: Candidates, Cache or Executor")
+    private String source;
+
+    /**
+     * Sets the fields and commits the event if it's enabled and long enough for the recording
+     * @param executor The class of the executor
+     * @param command The command name
+     * @param argumentCount The amount of arguments
+     * @param completions The amount of completions added
+     * @param source One of the SOURCE constants
+     */
+    public void commit(Class<?> executor, String command, int argumentCount, int completions, String source) {
+        if(!shouldCommit())
+            return;
+
+        this.executor = executor;
+        this.command = command;
+        this.argumentCount = argumentCount;
+        this.completions = completions;
+        this.source = source;
+        commit();
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.reflection;
+
+import me.ryun.plugintools.CraftBukkitFinder;
+import me.ryun.plugintools.exceptions.AccessorNotFoundException;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleProxies;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves CraftBukkit and NMS classes, methods and fields once and caches them as {@link MethodHandle}, {@link VarHandle} or functional interfaces,
+ * so repeated reflective calls run at near direct call speed. Store the returned handles in {@code static final} fields to let the JIT inline them
+ * <pre>{@code
+ * private static final Class<?> CRAFT_PLAYER = CraftBukkitAccessors.craftClass("entity.CraftPlayer");
+ * private static final MethodHandle GET_HANDLE = CraftBukkitAccessors.method(CRAFT_PLAYER, "getHandle");
+ * }</pre>
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public final class CraftBukkitAccessors {
+    private static final String LEGACY_NMS_PACKAGE = "net.minecraft.server";
+
+    private static final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+    private static final Map<Member, MethodHandle> methods = new ConcurrentHashMap<>();
+    private static final Map<Member, VarHandle> fields = new ConcurrentHashMap<>();
+    private static final Map<Member, Object> lambdas = new ConcurrentHashMap<>();
+
+    private CraftBukkitAccessors() {}
+
+    /**
+     * Get a class in the CraftBukkit package found by {@link CraftBukkitFinder#scan(boolean)}
+     * @param name The name relative to the CraftBukkit package, i.e. {@code entity.CraftPlayer}
+     * @return {@link Class}
+     */
+    public static @NotNull Class<?> craftClass(@NotNull String name) {
+        return type(CraftBukkitFinder.scan(false) + "." + name);
+    }
+
+    /**
+     * Get an NMS class. A name without a package is looked up in the versioned {@code net.minecraft.server} package used before 1.17
+     * @param name The full name i.e. {@code net.minecraft.server.level.ServerPlayer}, or the simple name on old versions i.e. {@code EntityPlayer}
+     * @return {@link Class}
+     */
+    public static @NotNull Class<?> nmsClass(@NotNull String name) {
+        if(name.indexOf('.') >= 0)
+            return type(name);
+
+        String craftBukkit = CraftBukkitFinder.scan(false);
+        String version = craftBukkit.substring(craftBukkit.lastIndexOf('.') + 1);
+
+        return type(LEGACY_NMS_PACKAGE + "." + version + "." + name);
+    }
+
+    /**
+     * Get a class by its full name
+     * @param name {@link String}
+     * @return {@link Class}
+     */
+    public static @NotNull Class<?> type(@NotNull String name) {
+        Class<?> type = classes.get(name);
+
+        if(type != null)
+            return type;
+
+        try {
+            type = Class.forName(name, false, CraftBukkitAccessors.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new AccessorNotFoundException("Class " + name + " does not exist!", e);
+        }
+
+        return cache(classes, name, type);
+    }
+
+    /**
+     * Get a method, even a private or inherited one. Instance methods take the instance as their first argument
+     * @param owner The class that has the method
+     * @param name The name of the method
+     * @param parameters The parameter types of the method
+     * @return {@link MethodHandle}
+     */
+    public static @NotNull MethodHandle method(@NotNull Class<?> owner, @NotNull String name, @NotNull Class<?>... parameters) {
+        Member key = new Member(owner, name, parameters);
+        MethodHandle handle = methods.get(key);
+
+        if(handle != null)
+            return handle;
+
+        try {
+            Method method = findMethod(owner, name, parameters);
+            handle = lookup(method.getDeclaringClass()).unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new AccessorNotFoundException("Method " + owner.getName() + "#" + name + Arrays.toString(parameters) + " does not exist or can't be accessed!", e);
+        }
+
+        return cache(methods, key, handle);
+    }
+
+    /**
+     * Get a constructor, even a private one
+     * @param owner The class to construct
+     * @param parameters The parameter types of the constructor
+     * @return {@link MethodHandle}
+     */
+    public static @NotNull MethodHandle constructor(@NotNull Class<?> owner, @NotNull Class<?>... parameters) {
+        Member key = new Member(owner, "<init>", parameters);
+        MethodHandle handle = methods.get(key);
+
+        if(handle != null)
+            return handle;
+
+        try {
+            Constructor<?> constructor = owner.getDeclaredConstructor(parameters);
+            handle = lookup(owner).unreflectConstructor(constructor);
+        } catch (ReflectiveOperationException e) {
+            throw new AccessorNotFoundException("Constructor " + owner.getName() + Arrays.toString(parameters) + " does not exist or can't be accessed!", e);
+        }
+
+        return cache(methods, key, handle);
+    }
+
+    /**
+     * Get a field, even a private or inherited one. Instance fields take the instance as their first coordinate
+     * @param owner The class that has the field
+     * @param name The name of the field
+     * @return {@link VarHandle}
+     */
+    public static @NotNull VarHandle field(@NotNull Class<?> owner, @NotNull String name) {
+        Member key = new Member(owner, name, new Class<?>[0]);
+        VarHandle handle = fields.get(key);
+
+        if(handle != null)
+            return handle;
+
+        try {
+            Field field = findField(owner, name);
+            handle = lookup(field.getDeclaringClass()).unreflectVarHandle(field);
+        } catch (ReflectiveOperationException e) {
+            throw new AccessorNotFoundException("Field " + owner.getName() + "#" + name + " does not exist or can't be accessed!", e);
+        }
+
+        return cache(fields, key, handle);
+    }
+
+    /**
+     * Implements a functional interface with a method, so it can be called without {@link MethodHandle#invoke(Object...)} and without boxing primitives
+     * if the interface uses them. Public methods of public classes are bound with {@link LambdaMetafactory}, which is as fast as a lambda,
+     * while the others fall back to {@link MethodHandleProxies}
+     * @param functionalInterface The interface to implement, i.e. {@code Function.class} or your own interface
+     * @param owner The class that has the method
+     * @param name The name of the method
+     * @param parameters The parameter types of the method
+     * @return The implementation of the interface
+     * @param <T> The type of the interface
+     */
+    public static <T> @NotNull T lambda(@NotNull Class<T> functionalInterface, @NotNull Class<?> owner, @NotNull String name, @NotNull Class<?>... parameters) {
+        Member key = new Member(owner, name + "->" + functionalInterface.getName(), parameters);
+        Object lambda = lambdas.get(key);
+
+        if(lambda != null)
+            return functionalInterface.cast(lambda);
+
+        MethodHandle handle = method(owner, name, parameters);
+        Method abstractMethod = abstractMethod(functionalInterface);
+        MethodType interfaceType = MethodType.methodType(abstractMethod.getReturnType(), abstractMethod.getParameterTypes());
+
+        //The types of the method are a specialization of the interface, like the generics of a lambda
+        MethodType instantiatedType = handle.type();
+        if(interfaceType.returnType() == void.class)
+            instantiatedType = instantiatedType.changeReturnType(void.class);
+
+        lambda = null;
+
+        if(isPublic(owner, name, parameters)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), abstractMethod.getName(), MethodType.methodType(functionalInterface),
+                        interfaceType, handle, instantiatedType);
+                lambda = site.getTarget().invoke();
+            } catch (LambdaConversionException | IllegalAccessException ignored) {
+                //Can't be linked from here after all, so use the proxy below
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Could not implement " + functionalInterface.getName() + " with " + owner.getName() + "#" + name + "!", e);
+            }
+        }
+
+        //The slower but always working proxy
+        if(lambda == null)
+            lambda = MethodHandleProxies.asInterfaceInstance(functionalInterface, handle);
+
+        return functionalInterface.cast(cache(lambdas, key, lambda));
+    }
+
+    /**
+     * Caches a value unless another thread was faster, so every caller gets the same instance
+     * @param cache The cache
+     * @param key The key
+     * @param value The value that was resolved
+     * @return The value in the cache
+     */
+    private static <K, V> V cache(Map<K, V> cache, K key, V value) {
+        V existing = cache.putIfAbsent(key, value);
+
+        return existing != null ? existing : value;
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> owner) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+    }
+
+    private static boolean isPublic(Class<?> owner, String name, Class<?>[] parameters) {
+        try {
+            Method method = findMethod(owner, name, parameters);
+
+            return Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(method.getDeclaringClass().getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Method findMethod(Class<?> owner, String name, Class<?>[] parameters) throws NoSuchMethodException {
+        for(Class<?> type = owner; type != null; type = type.getSuperclass()) {
+            try {
+                return type.getDeclaredMethod(name, parameters);
+            } catch (NoSuchMethodException ignored) {}
+        }
+
+        //Default methods of interfaces
+        return owner.getMethod(name, parameters);
+    }
+
+    private static Field findField(Class<?> owner, String name) throws NoSuchFieldException {
+        for(Class<?> type = owner; type != null; type = type.getSuperclass()) {
+            try {
+                return type.getDeclaredField(name);
+            } catch (NoSuchFieldException ignored) {}
+        }
+
+        throw new NoSuchFieldException(name);
+    }
+
+    private static Method abstractMethod(Class<?> functionalInterface) {
+        if(!functionalInterface.isInterface())
+            throw new IllegalArgumentException(functionalInterface.getName() + " is not an interface!");
+
+        Method result = null;
+
+        for (Method method: functionalInterface.getMethods()) {
+            if(!Modifier.isAbstract(method.getModifiers()) || isObjectMethod(method))
+                continue;
+
+            if(result != null)
+                throw new IllegalArgumentException(functionalInterface.getName() + " is not a functional interface!");
+
+            result = method;
+        }
+
+        return Objects.requireNonNull(result, functionalInterface.getName() + " has no abstract method!");
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+
+            return true;
+        } catch (NoSuchMethodException ignored) {
+            return false;
+        }
+    }
+
+    /**
+     * The key of a cached member
+     */
+    private static final class Member {
+        private final Class<?> owner;
+        private final String name;
+        private final Class<?>[] parameters;
+        private final int hash;
+
+        private Member(Class<?> owner, String name, Class<?>[] parameters) {
+            this.owner = owner;
+            this.name = name;
+            this.parameters = parameters.clone();
+            this.hash = 31 * (31 * owner.hashCode() + name.hashCode()) + Arrays.hashCode(parameters);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if(this == other)
+                return true;
+            if(!(other instanceof Member))
+                return false;
+
+            Member member = (Member) other;
+
+            return owner == member.owner && name.equals(member.name) && Arrays.equals(parameters, member.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
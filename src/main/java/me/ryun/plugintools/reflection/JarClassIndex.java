@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.reflection;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * An index of every class in a jar, built by reading the zip central directory once without loading or even unzipping anything.
+ * Checking if a class or package exists is then a single hash lookup, unlike {@link Class#forName(String)} which throws and fills the negative cache of the class loader
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public final class JarClassIndex {
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR = 0x07064b50;
+    private static final int CENTRAL_DIRECTORY_ENTRY = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int MAXIMUM_COMMENT_SIZE = 0xFFFF;
+    private static final Pattern VERSIONED_PACKAGE = Pattern.compile("v\\d+_\\d+_R\\d+");
+
+    private static volatile JarClassIndex server = null;
+    private static volatile boolean isServerIndexed = false;
+
+    private final Set<String> classes;
+    private final Set<String> packages;
+
+    private JarClassIndex(Set<String> classes, Set<String> packages) {
+        this.classes = classes;
+        this.packages = packages;
+    }
+
+    /**
+     * Reads the central directory of a jar
+     * @param jar The path of the jar
+     * @return {@link JarClassIndex}
+     * @throws IOException If the jar can't be read or is not a valid zip file
+     */
+    public static @NotNull JarClassIndex of(@NotNull Path jar) throws IOException {
+        Set<String> classes = new HashSet<>();
+        Set<String> packages = new HashSet<>();
+
+        try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long tailSize = Math.min(size, END_OF_CENTRAL_DIRECTORY_SIZE + MAXIMUM_COMMENT_SIZE);
+            MappedByteBuffer tail = map(channel, size - tailSize, tailSize);
+
+            int end = findEndOfCentralDirectory(tail);
+            long entries = Short.toUnsignedLong(tail.getShort(end + 10));
+            long directorySize = Integer.toUnsignedLong(tail.getInt(end + 12));
+            long directoryOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+
+            //Too many entries or too big for a normal zip, so the real values are in the zip64 record
+            if(entries == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) {
+                int locator = end - 20;
+
+                if(locator < 0 || tail.getInt(locator) != ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR)
+                    throw new IOException("Missing zip64 end of central directory locator in " + jar);
+
+                MappedByteBuffer zip64 = map(channel, tail.getLong(locator + 8), 56);
+
+                if(zip64.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY)
+                    throw new IOException("Invalid zip64 end of central directory in " + jar);
+
+                entries = zip64.getLong(32);
+                directorySize = zip64.getLong(40);
+                directoryOffset = zip64.getLong(48);
+            }
+
+            MappedByteBuffer directory = map(channel, directoryOffset, directorySize);
+            byte[] name = new byte[256];
+            int position = 0;
+
+            for(long i = 0; i < entries; i++) {
+                if(directory.getInt(position) != CENTRAL_DIRECTORY_ENTRY)
+                    throw new IOException("Invalid central directory entry in " + jar);
+
+                int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+                int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+                int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+
+                if(name.length < nameLength)
+                    name = new byte[nameLength];
+
+                directory.get(position + 46, name, 0, nameLength);
+                add(new String(name, 0, nameLength, StandardCharsets.UTF_8), classes, packages);
+
+                position += 46 + nameLength + extraLength + commentLength;
+            }
+        }
+
+        return new JarClassIndex(classes, packages);
+    }
+
+    /**
+     * Get the index of the running server jar. It is only built the first time
+     * @return {@link JarClassIndex} or null if the server jar can't be found or read
+     */
+    public static @Nullable JarClassIndex server() {
+        if(isServerIndexed)
+            return server;
+
+        synchronized (JarClassIndex.class) {
+            if(!isServerIndexed) {
+                Path jar = serverJar();
+
+                try {
+                    server = jar != null ? of(jar) : null;
+                } catch (IOException ignored) {
+                    server = null;
+                }
+
+                isServerIndexed = true;
+            }
+
+            return server;
+        }
+    }
+
+    /**
+     * Get the jar the running server was loaded from
+     * @return {@link Path} or null if there is no server or it was not loaded from a jar
+     */
+    public static @Nullable Path serverJar() {
+        try {
+            Server running = Bukkit.getServer();
+            CodeSource source = running != null ? running.getClass().getProtectionDomain().getCodeSource() : null;
+
+            if(source == null || source.getLocation() == null)
+                return null;
+
+            Path jar = Paths.get(source.getLocation().toURI());
+
+            return Files.isRegularFile(jar) ? jar : null;
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * Does the class exist in the jar?
+     * @param name The binary name, i.e. {@code org.bukkit.craftbukkit.v1_20_R1.CraftServer}
+     * @return boolean
+     */
+    public boolean hasClass(@NotNull String name) {
+        return classes.contains(name);
+    }
+
+    /**
+     * Does the package directly contain a class in the jar?
+     * @param name The package name, i.e. {@code org.bukkit.craftbukkit.v1_20_R1}
+     * @return boolean
+     */
+    public boolean hasPackage(@NotNull String name) {
+        return packages.contains(name);
+    }
+
+    /**
+     * Get the versioned packages directly inside a package, like the ones CraftBukkit was relocated to before Paper 1.20.5
+     * @param basePackage The package name, i.e. {@code org.bukkit.craftbukkit}
+     * @return The package names, i.e. {@code org.bukkit.craftbukkit.v1_20_R1}
+     */
+    public @NotNull List<String> getVersionedPackages(@NotNull String basePackage) {
+        String prefix = basePackage + ".";
+        List<String> versioned = new ArrayList<>();
+
+        for (String name: packages) {
+            if(!name.startsWith(prefix))
+                continue;
+
+            String child = name.substring(prefix.length());
+            int dot = child.indexOf('.');
+
+            if(VERSIONED_PACKAGE.matcher(dot < 0 ? child : child.substring(0, dot)).matches()) {
+                String versionedPackage = dot < 0 ? name : prefix + child.substring(0, dot);
+
+                if(!versioned.contains(versionedPackage))
+                    versioned.add(versionedPackage);
+            }
+        }
+
+        versioned.sort(null);
+
+        return versioned;
+    }
+
+    /**
+     * Get the amount of classes in the jar
+     * @return int
+     */
+    public int size() {
+        return classes.size();
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if(position < 0 || size > Integer.MAX_VALUE || position + size > channel.size())
+            throw new IOException("Invalid zip offsets");
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        return buffer;
+    }
+
+    private static int findEndOfCentralDirectory(MappedByteBuffer tail) throws IOException {
+        for(int position = tail.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; position >= 0; position--) {
+            if(tail.getInt(position) == END_OF_CENTRAL_DIRECTORY)
+                return position;
+        }
+
+        throw new IOException("Not a zip file");
+    }
+
+    private static void add(String entry, Set<String> classes, Set<String> packages) {
+        if(!entry.endsWith(".class") || entry.startsWith("META-INF/"))
+            return;
+
+        String name = entry.substring(0, entry.length() - ".class".length()).replace('/', '.');
+        int dot = name.lastIndexOf('.');
+
+        classes.add(name);
+        packages.add(dot < 0 ? "" : name.substring(0, dot));
+    }
+}
@@ -0,0 +1,575 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.annotations.processor;
+
+import me.ryun.plugintools.annotations.Command;
+import me.ryun.plugintools.annotations.Subcommand;
+import me.ryun.plugintools.annotations.TabComplete;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Generates a {@code <Class>_Dispatcher} {@link org.bukkit.command.TabExecutor} for every class with {@link Command}, {@link Subcommand} or {@link TabComplete} methods.
+ * The dispatcher switches on the command and subcommand names, which javac compiles to a switch on their hash codes, then calls the methods directly.
+ * Add the processor jar of the plugin tools to the {@code annotationProcessor} configuration to use it
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+@SupportedAnnotationTypes({
+        "me.ryun.plugintools.annotations.Command",
+        "me.ryun.plugintools.annotations.Subcommand",
+        "me.ryun.plugintools.annotations.TabComplete"
+})
+public class CommandProcessor extends AbstractProcessor {
+    private static final Pattern NAME = Pattern.compile("[^\\s\"\\\\/]+");
+    private static final String SENDER = "org.bukkit.command.CommandSender";
+    private static final String DISPATCHER_SUFFIX = "_Dispatcher";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        Map<TypeElement, Map<String, CommandModel>> handlers = new LinkedHashMap<>();
+
+        for (Element element: round.getElementsAnnotatedWith(Command.class)) {
+            ExecutableElement method = (ExecutableElement) element;
+            Command annotation = method.getAnnotation(Command.class);
+            CommandModel command = command(handlers, method, annotation.value());
+
+            if(command == null || !isExecutor(method))
+                continue;
+            if(command.executor != null) {
+                error(method, "/" + command.name + " already has a @Command method");
+                continue;
+            }
+
+            command.executor = method;
+            for (String alias: annotation.aliases()) {
+                if(isValidName(method, alias))
+                    command.aliases.add(alias.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        for (Element element: round.getElementsAnnotatedWith(Subcommand.class)) {
+            ExecutableElement method = (ExecutableElement) element;
+            Subcommand annotation = method.getAnnotation(Subcommand.class);
+            CommandModel command = command(handlers, method, annotation.command());
+
+            if(command == null || !isExecutor(method) || !isValidName(method, annotation.value()))
+                continue;
+
+            SubcommandModel subcommand = command.subcommands.computeIfAbsent(annotation.value().toLowerCase(Locale.ROOT), name -> new SubcommandModel(name, method));
+
+            if(subcommand.executor != null) {
+                error(method, "/" + command.name + " " + subcommand.name + " already has a @Subcommand method");
+                continue;
+            }
+
+            subcommand.executor = method;
+            for (String alias: annotation.aliases()) {
+                if(isValidName(method, alias))
+                    subcommand.aliases.add(alias.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        for (Element element: round.getElementsAnnotatedWith(TabComplete.class)) {
+            ExecutableElement method = (ExecutableElement) element;
+            TabComplete annotation = method.getAnnotation(TabComplete.class);
+            CommandModel command = command(handlers, method, annotation.command());
+
+            if(command == null || !isCompleter(method))
+                continue;
+
+            if(annotation.subcommand().isEmpty()) {
+                if(command.completer != null)
+                    error(method, "/" + command.name + " already has a @TabComplete method");
+                else
+                    command.completer = method;
+
+                continue;
+            }
+
+            SubcommandModel subcommand = command.subcommands.get(annotation.subcommand().toLowerCase(Locale.ROOT));
+
+            if(subcommand == null)
+                error(method, "/" + command.name + " has no @Subcommand named " + annotation.subcommand());
+            else if(subcommand.completer != null)
+                error(method, "/" + command.name + " " + subcommand.name + " already has a @TabComplete method");
+            else
+                subcommand.completer = method;
+        }
+
+        checkCollisions(handlers);
+
+        for (Map.Entry<TypeElement, Map<String, CommandModel>> handler: handlers.entrySet())
+            generate(handler.getKey(), new ArrayList<>(handler.getValue().values()));
+
+        return true;
+    }
+
+    /**
+     * Reports every name or alias that is used twice, since only one of them would ever be called.
+     * Commands are checked across every class, because the dispatchers are usually registered to the same {@link me.ryun.plugintools.PluginCommands},
+     * and subcommands are checked within their command. Names are claimed before aliases, so the alias is reported.
+     * Comparing across classes is why the processor is declared aggregating to Gradle, which then gives it every annotated class on each incremental build
+     */
+    private void checkCollisions(Map<TypeElement, Map<String, CommandModel>> handlers) {
+        Map<String, String> commandNames = new HashMap<>();
+
+        for (Map<String, CommandModel> commands: handlers.values()) {
+            for (CommandModel command: commands.values())
+                claim(commandNames, command.name, "/" + command.name, command.element);
+        }
+
+        for (Map<String, CommandModel> commands: handlers.values()) {
+            for (CommandModel command: commands.values()) {
+                for (String alias: command.aliases)
+                    claim(commandNames, alias, "/" + command.name, command.executor);
+
+                Map<String, String> subcommandNames = new HashMap<>();
+
+                for (SubcommandModel subcommand: command.subcommands.values())
+                    subcommandNames.put(subcommand.name, "/" + command.name + " " + subcommand.name);
+
+                for (SubcommandModel subcommand: command.subcommands.values()) {
+                    for (String alias: subcommand.aliases)
+                        claim(subcommandNames, alias, "/" + command.name + " " + subcommand.name, subcommand.element);
+                }
+            }
+        }
+    }
+
+    private void claim(Map<String, String> claimed, String name, String owner, Element element) {
+        String previous = claimed.putIfAbsent(name, owner);
+
+        if(previous != null)
+            error(element, "\"" + name + "\" of " + owner + " is already a name or alias of " + previous);
+    }
+
+    private CommandModel command(Map<TypeElement, Map<String, CommandModel>> handlers, ExecutableElement method, String name) {
+        if(!isValidName(method, name))
+            return null;
+
+        Element enclosing = method.getEnclosingElement();
+
+        if(enclosing.getKind() != ElementKind.CLASS || enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+            error(method, "Command methods have to be in a class that is not private");
+            return null;
+        }
+        if(method.getModifiers().contains(Modifier.PRIVATE)) {
+            error(method, "Command methods can't be private, the dispatcher calls them directly");
+            return null;
+        }
+
+        return handlers.computeIfAbsent((TypeElement) enclosing, ignored -> new LinkedHashMap<>())
+                .computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> new CommandModel(key, method));
+    }
+
+    private boolean isValidName(Element element, String name) {
+        if(NAME.matcher(name).matches())
+            return true;
+
+        error(element, "\"" + name + "\" is not a valid command name");
+
+        return false;
+    }
+
+    private boolean isExecutor(ExecutableElement method) {
+        TypeKind returnType = method.getReturnType().getKind();
+
+        if(!hasParameters(method))
+            return false;
+        if(returnType != TypeKind.BOOLEAN && returnType != TypeKind.VOID) {
+            error(method, "Command methods have to return boolean or void");
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean isCompleter(ExecutableElement method) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror list = types.getDeclaredType(processingEnv.getElementUtils().getTypeElement("java.util.List"),
+                processingEnv.getElementUtils().getTypeElement("java.lang.String").asType());
+
+        if(!hasParameters(method))
+            return false;
+        if(!types.isAssignable(method.getReturnType(), list)) {
+            error(method, "Tab complete methods have to return List<String>");
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean hasParameters(ExecutableElement method) {
+        Types types = processingEnv.getTypeUtils();
+        TypeElement sender = processingEnv.getElementUtils().getTypeElement(SENDER);
+
+        if(method.getParameters().size() == 2 && sender != null && types.isAssignable(method.getParameters().get(0).asType(), sender.asType())) {
+            TypeMirror args = method.getParameters().get(1).asType();
+
+            if(args.getKind() == TypeKind.ARRAY && types.isSameType(((ArrayType) args).getComponentType(), processingEnv.getElementUtils().getTypeElement("java.lang.String").asType()))
+                return true;
+        }
+
+        error(method, "Command methods have to take a CommandSender, or a subtype of it, and a String[]");
+
+        return false;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void generate(TypeElement handler, List<CommandModel> commands) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(handler);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String handlerName = handler.getQualifiedName().toString();
+        String simpleName = (packageName.isEmpty() ? handlerName : handlerName.substring(packageName.length() + 1)).replace('.', '_') + DISPATCHER_SUFFIX;
+        Source source = new Source();
+
+        if(!packageName.isEmpty())
+            source.line("package " + packageName + ";").line("");
+
+        source.line("import java.util.ArrayList;")
+                .line("import java.util.Arrays;")
+                .line("import java.util.List;")
+                .line("import java.util.Locale;")
+                .line("")
+                .line("/**")
+                .line(" * Calls the command methods of {@link " + handlerName + "}. Generated by the plugin tools annotation processor, do not edit")
+                .line(" */")
+                .line("public final class " + simpleName + " implements org.bukkit.command.TabExecutor {")
+                .indent();
+
+        for(int i = 0; i < commands.size(); i++) {
+            CommandModel command = commands.get(i);
+
+            if(!command.subcommands.isEmpty())
+                source.line("private static final String[] SUBCOMMANDS_" + i + " = {" + quote(command.subcommands.keySet()) + "};");
+        }
+
+        source.line("")
+                .line("private final " + handlerName + " handler;")
+                .line("")
+                .line("/**")
+                .line(" * Create a new dispatcher")
+                .line(" * @param handler The instance the command methods are called on")
+                .line(" */")
+                .line("public " + simpleName + "(" + handlerName + " handler) {").indent()
+                .line("this.handler = handler;").outdent()
+                .line("}")
+                .line("")
+                .line("/**")
+                .line(" * Registers this dispatcher for all of its commands and aliases")
+                .line(" * @param commands {@link me.ryun.plugintools.PluginCommands}")
+                .line(" * @return If it was added")
+                .line(" */")
+                .line("public boolean registerTo(me.ryun.plugintools.PluginCommands commands) {").indent()
+                .line("return commands.register(this, " + quote(names(commands)) + ");").outdent()
+                .line("}")
+                .line("")
+                .line("@Override")
+                .line("public boolean onCommand(" + SENDER + " sender, org.bukkit.command.Command command, String label, String[] args) {").indent()
+                .line("switch (command.getName().toLowerCase(Locale.ROOT)) {").indent();
+
+        for (CommandModel command: commands) {
+            cases(source, command.name, command.aliases);
+            source.indent();
+
+            if(!command.subcommands.isEmpty()) {
+                source.line("if(args.length > 0) {").indent()
+                        .line("switch (args[0].toLowerCase(Locale.ROOT)) {").indent();
+
+                for (SubcommandModel subcommand: command.subcommands.values()) {
+                    if(subcommand.executor == null)
+                        continue;
+
+                    cases(source, subcommand.name, subcommand.aliases);
+                    execute(source.indent(), subcommand.executor, "Arrays.copyOfRange(args, 1, args.length)");
+                    source.outdent();
+                }
+
+                source.outdent().line("}").outdent().line("}");
+            }
+
+            if(command.executor != null)
+                execute(source, command.executor, "args");
+            else
+                source.line("return false;");
+
+            source.outdent();
+        }
+
+        source.line("default:").indent().line("return false;").outdent()
+                .outdent().line("}")
+                .outdent().line("}")
+                .line("")
+                .line("@Override")
+                .line("public List<String> onTabComplete(" + SENDER + " sender, org.bukkit.command.Command command, String label, String[] args) {").indent()
+                .line("switch (command.getName().toLowerCase(Locale.ROOT)) {").indent();
+
+        for(int i = 0; i < commands.size(); i++) {
+            CommandModel command = commands.get(i);
+
+            cases(source, command.name, command.aliases);
+            source.indent();
+
+            if(!command.subcommands.isEmpty()) {
+                source.line("if(args.length > 1) {").indent()
+                        .line("switch (args[0].toLowerCase(Locale.ROOT)) {").indent();
+
+                for (SubcommandModel subcommand: command.subcommands.values()) {
+                    if(subcommand.completer == null)
+                        continue;
+
+                    cases(source, subcommand.name, subcommand.aliases);
+                    complete(source.indent(), subcommand.completer, "Arrays.copyOfRange(args, 1, args.length)");
+                    source.outdent();
+                }
+
+                source.outdent().line("}").outdent().line("}")
+                        .line("if(args.length == 1) {").indent()
+                        .line("List<String> results = complete(SUBCOMMANDS_" + i + ", args[0]);");
+
+                if(command.completer != null) {
+                    String guard = guard(command.completer);
+
+                    if(guard != null)
+                        source.line("if(" + guard + ") {").indent();
+
+                    source.line("List<String> more = " + call(command.completer, "args") + ";")
+                            .line("if(more != null)").indent().line("results.addAll(more);").outdent();
+
+                    if(guard != null)
+                        source.outdent().line("}");
+                }
+
+                source.line("return results;").outdent().line("}");
+            }
+
+            if(command.completer != null)
+                complete(source, command.completer, "args");
+            else
+                source.line("return null;");
+
+            source.outdent();
+        }
+
+        source.line("default:").indent().line("return null;").outdent()
+                .outdent().line("}")
+                .outdent().line("}")
+                .line("")
+                .line("private static List<String> complete(String[] candidates, String prefix) {").indent()
+                .line("List<String> results = new ArrayList<>();")
+                .line("")
+                .line("for (String candidate: candidates) {").indent()
+                .line("if(candidate.regionMatches(true, 0, prefix, 0, prefix.length()))").indent()
+                .line("results.add(candidate);").outdent()
+                .outdent().line("}")
+                .line("")
+                .line("return results;")
+                .outdent().line("}")
+                .outdent().line("}");
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, handler);
+
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            error(handler, "Could not generate " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private void execute(Source source, ExecutableElement method, String args) {
+        String guard = guard(method);
+
+        //A method for players skips every other sender
+        if(guard != null)
+            source.line("if(!(" + guard + "))").indent().line("return false;").outdent();
+
+        if(method.getReturnType().getKind() == TypeKind.VOID)
+            source.line(call(method, args) + ";").line("return true;");
+        else
+            source.line("return " + call(method, args) + ";");
+    }
+
+    private void complete(Source source, ExecutableElement method, String args) {
+        String guard = guard(method);
+
+        if(guard != null)
+            source.line("if(!(" + guard + "))").indent().line("return null;").outdent();
+
+        source.line("return " + call(method, args) + ";");
+    }
+
+    private String guard(ExecutableElement method) {
+        TypeMirror sender = method.getParameters().get(0).asType();
+
+        if(processingEnv.getTypeUtils().erasure(sender).toString().equals(SENDER))
+            return null;
+
+        return "sender instanceof " + processingEnv.getTypeUtils().erasure(sender);
+    }
+
+    private String call(ExecutableElement method, String args) {
+        TypeMirror sender = method.getParameters().get(0).asType();
+        String receiver = method.getModifiers().contains(Modifier.STATIC) ? ((TypeElement) method.getEnclosingElement()).getQualifiedName().toString() : "handler";
+        String senderArgument = guard(method) == null ? "sender" : "(" + processingEnv.getTypeUtils().erasure(sender) + ") sender";
+
+        return receiver + "." + method.getSimpleName() + "(" + senderArgument + ", " + args + ")";
+    }
+
+    private static void cases(Source source, String name, List<String> aliases) {
+        source.line("case \"" + name + "\":");
+
+        for (String alias: aliases)
+            source.line("case \"" + alias + "\":");
+    }
+
+    private static List<String> names(List<CommandModel> commands) {
+        List<String> names = new ArrayList<>();
+
+        for (CommandModel command: commands) {
+            names.add(command.name);
+            names.addAll(command.aliases);
+        }
+
+        return names;
+    }
+
+    private static String quote(Iterable<String> names) {
+        StringBuilder builder = new StringBuilder();
+
+        for (String name: names) {
+            if(builder.length() > 0)
+                builder.append(", ");
+
+            builder.append('"').append(name).append('"');
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * The methods of a command
+     */
+    private static final class CommandModel {
+        private final String name;
+        private final ExecutableElement element;
+        private final List<String> aliases = new ArrayList<>();
+        private final Map<String, SubcommandModel> subcommands = new LinkedHashMap<>();
+        private ExecutableElement executor;
+        private ExecutableElement completer;
+
+        /**
+         * Create a new {@link CommandModel}
+         * @param name The lowercase name
+         * @param element The first method of the command, where errors about its name are reported
+         */
+        private CommandModel(String name, ExecutableElement element) {
+            this.name = name;
+            this.element = element;
+        }
+    }
+
+    /**
+     * The methods of a subcommand
+     */
+    private static final class SubcommandModel {
+        private final String name;
+        private final ExecutableElement element;
+        private final List<String> aliases = new ArrayList<>();
+        private ExecutableElement executor;
+        private ExecutableElement completer;
+
+        /**
+         * Create a new {@link SubcommandModel}
+         * @param name The lowercase name
+         * @param element The @Subcommand method, where errors about its aliases are reported
+         */
+        private SubcommandModel(String name, ExecutableElement element) {
+            this.name = name;
+            this.element = element;
+        }
+    }
+
+    /**
+     * Builds the indented source of the dispatcher
+     */
+    private static final class Source {
+        private final StringBuilder builder = new StringBuilder();
+        private int indent = 0;
+
+        private Source line(String line) {
+            if(!line.isEmpty())
+                builder.append("    ".repeat(indent));
+
+            builder.append(line).append('\n');
+
+            return this;
+        }
+
+        private Source indent() {
+            indent++;
+
+            return this;
+        }
+
+        private Source outdent() {
+            indent--;
+
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
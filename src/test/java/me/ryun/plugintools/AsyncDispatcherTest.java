@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import me.ryun.plugintools.simulation.SimulatedServer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncDispatcherTest {
+    private final SimulatedServer server = new SimulatedServer(0);
+    private final List<String> messages = new ArrayList<>();
+    private final CommandSender console = Fixtures.console(messages);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AsyncDispatcher dispatcher;
+
+    @BeforeEach
+    void install() {
+        assertTrue(server.install());
+        server.tick(); //This thread is now the server thread
+
+        dispatcher = AsyncDispatcher.Factory.make()
+                .setPlugin(server.getPlugin())
+                .setThreads(1)
+                .setQueueCapacity(1)
+                .create();
+    }
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void fullQueueRejectsTasks() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+
+        assertTrue(dispatcher.execute(() -> {
+            running.countDown();
+            awaitRelease();
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertTrue(dispatcher.execute(() -> {})); //Waits in the queue
+
+        assertFalse(dispatcher.execute(() -> {}));
+        assertNull(dispatcher.submit(() -> true));
+
+        release.countDown();
+        dispatcher.shutdown();
+        assertFalse(dispatcher.execute(() -> {}));
+        assertNull(dispatcher.submit(() -> true));
+    }
+
+    @Test
+    void resultsAreHandedBackToTheServerThread() throws Exception {
+        List<String> ran = new ArrayList<>();
+
+        //Already on the server thread, so right away
+        dispatcher.runOnMainThread(() -> ran.add("main"));
+        assertEquals(List.of("main"), ran);
+        assertEquals(42, dispatcher.callOnMainThread(() -> 42).get());
+
+        AtomicReference<Future<Integer>> called = new AtomicReference<>();
+        Future<?> handedBack = dispatcher.submit(() -> {
+            dispatcher.runOnMainThread(() -> ran.add("async"));
+            called.set(dispatcher.callOnMainThread(() -> 7));
+
+            return null;
+        });
+
+        assertNotNull(handedBack);
+        handedBack.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("main"), ran);
+        assertFalse(called.get().isDone());
+
+        server.tick();
+        assertEquals(List.of("main", "async"), ran);
+        assertEquals(7, called.get().get(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void callAsyncSendsTheUsageOnTheServerThread() throws Exception {
+        PluginCommands commands = new PluginCommands();
+        AsyncExecutor executor = new AsyncExecutor(false, null, null);
+        Command command = Fixtures.command("warp").setUsage("/<command> <name>");
+
+        commands.setAsyncDispatcher(dispatcher);
+        commands.add(executor);
+
+        assertTrue(commands.callAsync(console, command, "w", new String[0]));
+        assertTrue(executor.called.await(5, TimeUnit.SECONDS));
+
+        //The usage is only sent once the task handed it back
+        for(int i = 0; i < 100 && messages.isEmpty(); i++) {
+            Thread.sleep(10);
+            server.tick();
+        }
+
+        assertEquals(List.of("/w <name>"), messages);
+        assertNotSame(Thread.currentThread(), executor.thread.get());
+    }
+
+    @Test
+    void callAsyncCallsRightAwayWhenEveryThreadIsBusy() throws Exception {
+        PluginCommands commands = new PluginCommands();
+        AsyncExecutor executor = new AsyncExecutor(true, null, null);
+
+        commands.setAsyncDispatcher(dispatcher);
+        commands.add(executor);
+        fill();
+
+        assertTrue(commands.callAsync(console, Fixtures.command("warp"), "warp", new String[0]));
+        assertSame(Thread.currentThread(), executor.thread.get());
+    }
+
+    @Test
+    void callAllParallelCancelsExecutorsPastTheDeadline() throws Exception {
+        PluginCommands commands = new PluginCommands();
+        AsyncExecutor slow = new AsyncExecutor(true, null, release);
+        Fixtures.RecordingExecutor sync = new Fixtures.RecordingExecutor(false, null);
+
+        commands.setAsyncDispatcher(dispatcher);
+        commands.add(slow);
+        commands.add(sync);
+
+        //The slow one would have executed, but it is too late so it counts as not executed
+        assertFalse(commands.callAllParallel(console, Fixtures.command("warp"), "warp", new String[0], Duration.ofMillis(50)));
+        assertEquals(List.of("warp"), sync.calls);
+        assertTrue(slow.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void completeTabAllParallelMergesByOrderAndLeavesOutLateExecutors() throws Exception {
+        AsyncDispatcher wide = AsyncDispatcher.Factory.make().setPlugin(server.getPlugin()).setThreads(2).create();
+        PluginCommands commands = new PluginCommands();
+        AsyncExecutor slow = new AsyncExecutor(true, List.of("late"), release);
+
+        try {
+            commands.setAsyncDispatcher(wide);
+            commands.add(new AsyncExecutor(true, List.of("first"), null));
+            commands.add(slow);
+            commands.add(new Fixtures.RecordingExecutor(true, List.of("last")));
+
+            assertEquals(List.of("first", "last"), commands.completeTabAllParallel(console, Fixtures.command("warp"), "warp", new String[] {""}, Duration.ofMillis(50)));
+            assertTrue(slow.interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            wide.shutdown();
+        }
+    }
+
+    /**
+     * Keeps the only thread busy and the queue full until the test ends
+     */
+    private void fill() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+
+        assertTrue(dispatcher.execute(() -> {
+            running.countDown();
+            awaitRelease();
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertTrue(dispatcher.execute(() -> {}));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * An {@link AsyncTabExecutor} that remembers its thread and can be held up until a latch is released
+     */
+    private static final class AsyncExecutor implements AsyncTabExecutor {
+        private final boolean result;
+        private final List<String> completions;
+        private final CountDownLatch release;
+        private final CountDownLatch called = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+        private final AtomicReference<Thread> thread = new AtomicReference<>();
+
+        private AsyncExecutor(boolean result, List<String> completions, CountDownLatch release) {
+            this.result = result;
+            this.completions = completions;
+            this.release = release;
+        }
+
+        @Override
+        public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+            hold();
+
+            return result;
+        }
+
+        @Override
+        public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+            hold();
+
+            return completions;
+        }
+
+        private void hold() {
+            thread.set(Thread.currentThread());
+            called.countDown();
+
+            if(release == null)
+                return;
+
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import me.ryun.plugintools.simulation.SimulatedServer;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandRateLimiterTest {
+    private final SimulatedServer server = new SimulatedServer(0);
+    private final AtomicLong clock = new AtomicLong();
+    private final List<String> messages = new ArrayList<>();
+    private final Player player = Fixtures.player("Ryun", permission -> true, new AtomicInteger(), messages);
+    private final Fixtures.RecordingExecutor home = new Fixtures.RecordingExecutor(true, List.of("set"));
+    private final Fixtures.RecordingExecutor warp = new Fixtures.RecordingExecutor(true, null);
+    private final PluginCommands commands = new PluginCommands();
+
+    @BeforeEach
+    void install() {
+        assertTrue(server.install());
+
+        commands.register(home, "home");
+        commands.register(warp, "warp");
+    }
+
+    @Test
+    void burstIsAllowedAndRefillsOverTime() {
+        commands.setRateLimiter(limiter().setCommandLimit(3, Duration.ofSeconds(1)).create());
+
+        for(int i = 0; i < 4; i++)
+            assertTrue(call("home"));
+
+        assertEquals(3, home.calls.size());
+        assertEquals(List.of("Slow down!"), messages);
+        assertEquals(1, commands.getRateLimiter().getRejected());
+
+        //One token every third of a second
+        advance(300);
+        call("home");
+        assertEquals(3, home.calls.size());
+
+        advance(34);
+        call("home");
+        assertEquals(4, home.calls.size());
+
+        //Fully refilled, but never above the burst
+        advance(5000);
+        for(int i = 0; i < 4; i++)
+            call("home");
+
+        assertEquals(7, home.calls.size());
+        assertEquals(3, commands.getRateLimiter().getRejected());
+    }
+
+    @Test
+    void commandLimitIsRefundedWhenEveryCommandIsOverTheLimit() {
+        commands.setRateLimiter(limiter().setCommandLimit(2, Duration.ofSeconds(1)).setLimit("warp", 1, Duration.ofSeconds(1)).create());
+
+        call("home");
+        call("home");
+        call("warp");
+        assertEquals(0, warp.calls.size());
+
+        //The limit of every command refilled one token, while /warp alone would still wait half a second if it was charged above
+        advance(500);
+        call("warp");
+        assertEquals(1, warp.calls.size());
+    }
+
+    @Test
+    void dropIsSilent() {
+        commands.setRateLimiter(limiter().setPolicy(CommandRateLimiter.Policy.DROP).setCommandLimit(1, Duration.ofSeconds(1)).create());
+
+        call("home");
+        call("home");
+
+        assertEquals(1, home.calls.size());
+        assertEquals(1, commands.getRateLimiter().getDropped());
+        assertEquals(0, commands.getRateLimiter().getRejected());
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    void queueDelaysUntilTheNextTokensAndRejectsWhenFull() {
+        commands.setRateLimiter(limiter().setPolicy(CommandRateLimiter.Policy.QUEUE).setQueueCapacity(2).setCommandLimit(1, Duration.ofSeconds(1)).create());
+
+        for(int i = 0; i < 4; i++)
+            call("home");
+
+        assertEquals(1, home.calls.size());
+        assertEquals(2, commands.getRateLimiter().getQueued());
+        assertEquals(1, commands.getRateLimiter().getRejected());
+        assertEquals(List.of("Slow down!"), messages);
+
+        //A second is 20 ticks, rounded up to the next tick
+        for(int i = 0; i <= 20; i++)
+            server.tick();
+        assertEquals(1, home.calls.size());
+
+        server.tick();
+        assertEquals(2, home.calls.size());
+
+        for(int i = 0; i < 20; i++)
+            server.tick();
+        assertEquals(3, home.calls.size());
+    }
+
+    @Test
+    void completionsAreThrottled() {
+        commands.setRateLimiter(limiter().setCompletionLimit(2, Duration.ofSeconds(1)).create());
+
+        assertEquals(List.of("set"), complete());
+        assertEquals(List.of("set"), complete());
+        assertTrue(complete().isEmpty());
+        assertEquals(1, commands.getRateLimiter().getThrottledCompletions());
+
+        advance(500);
+        assertEquals(List.of("set"), complete());
+    }
+
+    private CommandRateLimiter.Factory limiter() {
+        return CommandRateLimiter.Factory.make()
+                .setPlugin(server.getPlugin())
+                .setMessage("Slow down!")
+                .setClock(clock::get);
+    }
+
+    private boolean call(String name) {
+        return commands.call(player, Fixtures.command(name), name, new String[0]);
+    }
+
+    private List<String> complete() {
+        return commands.completeTab(player, Fixtures.command("home"), "home", new String[] {""});
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
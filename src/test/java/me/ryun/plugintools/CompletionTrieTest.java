@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletionTrieTest {
+    private static List<String> complete(CompletionTrie trie, String prefix) {
+        List<String> results = new ArrayList<>();
+        trie.complete(prefix, results);
+
+        return results;
+    }
+
+    @Test
+    void completesEveryValueForAnEmptyPrefix() {
+        CompletionTrie trie = new CompletionTrie(new String[] {"remove", "add", "List"});
+
+        assertEquals(List.of("add", "List", "remove"), complete(trie, ""));
+    }
+
+    @Test
+    void completesByPrefixIgnoringCase() {
+        CompletionTrie trie = new CompletionTrie(new String[] {"reset", "reload", "Remove", "add"});
+
+        assertEquals(List.of("reload", "Remove", "reset"), complete(trie, "RE"));
+        assertEquals(List.of("reload"), complete(trie, "rel"));
+        assertEquals(List.of("Remove"), complete(trie, "rEm"));
+        assertEquals(List.of(), complete(trie, "x"));
+        assertEquals(List.of(), complete(trie, "resets"));
+    }
+
+    @Test
+    void valuesThatArePrefixesOfOthersAreKept() {
+        CompletionTrie trie = new CompletionTrie(new String[] {"warps", "warp", "war"});
+
+        assertEquals(List.of("war", "warp", "warps"), complete(trie, "war"));
+        assertEquals(List.of("warp", "warps"), complete(trie, "WARP"));
+    }
+
+    @Test
+    void foldsCaseLikeCaseInsensitiveOrder() {
+        //Dotless and dotted i only fold together through upper case
+        CompletionTrie trie = new CompletionTrie(new String[] {"\u0131tem", "Item"});
+
+        assertEquals(2, complete(trie, "I").size());
+        assertEquals(2, complete(trie, "i").size());
+    }
+
+    @Test
+    void containsOnlyWholeValues() {
+        CompletionTrie trie = new CompletionTrie(new String[] {"warp", "warps"});
+
+        assertTrue(trie.contains("WARP"));
+        assertTrue(trie.contains("warps"));
+        assertFalse(trie.contains("war"));
+        assertFalse(trie.contains("warpss"));
+        assertFalse(trie.contains(""));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentPluginCommandsTest {
+    private final CommandSender console = Fixtures.console(new ArrayList<>());
+
+    @Test
+    void readersNeverBlockOrBuild() throws Exception {
+        ConcurrentPluginCommands commands = new ConcurrentPluginCommands();
+        AtomicInteger builds = new AtomicInteger();
+        List<TabExecutor> executors = new ArrayList<>();
+
+        for(int i = 0; i < 100; i++)
+            executors.add(new Fixtures.RecordingExecutor(false, null));
+
+        for(int i = 0; i < 10; i++)
+            commands.register(new CountingExecutor(builds), "command" + i);
+        commands.addAll(executors);
+        commands.removeIf(executor -> executors.indexOf(executor) % 2 == 0);
+
+        //Every modification built its snapshot on the writer's thread
+        int built = builds.get();
+        assertEquals(55 + 10 + 10, built);
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+
+        try {
+            //Even while a writer holds the lock, reading answers right away from the published snapshot
+            synchronized (commands) {
+                Future<List<String>> completions = reader.submit(() -> commands.completeTab(console, Fixtures.command("command0"), "command0", new String[] {""}));
+                Future<Integer> size = reader.submit(commands::size);
+
+                assertEquals(List.of("first", "second"), completions.get(5, TimeUnit.SECONDS));
+                assertEquals(60, size.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            reader.shutdownNow();
+        }
+
+        assertEquals(built, builds.get());
+    }
+
+    @Test
+    void readsSeeTheLatestModification() {
+        ConcurrentPluginCommands commands = new ConcurrentPluginCommands();
+        Fixtures.RecordingExecutor warp = new Fixtures.RecordingExecutor(true, null);
+
+        assertFalse(commands.call(console, Fixtures.command("warp"), "warp", new String[0]));
+
+        commands.register(warp, "warp");
+        assertTrue(commands.call(console, Fixtures.command("warp"), "warp", new String[0]));
+        assertEquals(1, commands.size());
+
+        commands.clear();
+        assertFalse(commands.call(console, Fixtures.command("warp"), "warp", new String[0]));
+        assertTrue(commands.isEmpty());
+        assertEquals(List.of("warp"), warp.calls);
+    }
+
+    @Test
+    void deserializedListCallsItsExecutors() throws IOException, ClassNotFoundException {
+        ConcurrentPluginCommands commands = new ConcurrentPluginCommands();
+        commands.add(new SerializableExecutor());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(commands);
+        }
+
+        ConcurrentPluginCommands copy;
+        try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (ConcurrentPluginCommands) in.readObject();
+        }
+
+        assertEquals(1, copy.size());
+        assertTrue(copy.call(console, Fixtures.command("test"), "test", new String[0]));
+
+        copy.register(new SerializableExecutor(), "other");
+        assertEquals(2, copy.size());
+    }
+
+    private static class CountingExecutor extends Fixtures.RecordingExecutor implements TabCandidates {
+        private final AtomicInteger builds;
+
+        CountingExecutor(AtomicInteger builds) {
+            super(false, null);
+            this.builds = builds;
+        }
+
+        @Override
+        public @NotNull String[][] getTabCandidates() {
+            builds.incrementAndGet();
+
+            return new String[][] {{"first", "second"}};
+        }
+    }
+
+    private static class SerializableExecutor implements TabExecutor, Serializable {
+        @Override
+        public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+            return true;
+        }
+
+        @Override
+        public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+            return null;
+        }
+    }
+}
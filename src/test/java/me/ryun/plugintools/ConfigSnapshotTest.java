@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigSnapshotTest {
+    @Test
+    void sectionsAreFlattenedToDottedKeys() {
+        ConfigSnapshot snapshot = ConfigSnapshot.of(Map.of(
+                "database", Map.of("pool", Map.of("size", 10), "host", "localhost"),
+                "debug", true));
+
+        assertEquals(Set.of("database.pool.size", "database.host", "debug"), snapshot.getKeys());
+        assertTrue(snapshot.contains("database.pool.size"));
+        assertFalse(snapshot.contains("database.pool"));
+        assertSame(ConfigSnapshot.EMPTY, ConfigSnapshot.of(null));
+        assertSame(ConfigSnapshot.EMPTY, ConfigSnapshot.of(new HashMap<>()));
+    }
+
+    @Test
+    void nestedListsAndSectionsAreDeepCopies() {
+        Map<String, Object> spawn = new HashMap<>();
+        spawn.put("world", "world");
+        List<Object> levels = new ArrayList<>(List.of(1, 2));
+        List<Object> spawns = new ArrayList<>(List.of(spawn, levels));
+        Map<String, Object> parsed = new HashMap<>();
+        parsed.put("spawns", spawns);
+
+        ConfigSnapshot snapshot = ConfigSnapshot.of(parsed);
+
+        //Changing what the parser returned doesn't change the snapshot
+        spawn.put("world", "nether");
+        spawns.add("extra");
+        levels.add(3);
+
+        List<?> copied = snapshot.getList("spawns");
+        Map<?, ?> section = (Map<?, ?>) copied.get(0);
+        List<?> numbers = (List<?>) copied.get(1);
+
+        assertEquals(2, copied.size());
+        assertEquals("world", section.get("world"));
+        assertEquals(List.of(1, 2), numbers);
+
+        //And nothing can be changed through it
+        assertThrows(UnsupportedOperationException.class, () -> copied.clear());
+        assertThrows(UnsupportedOperationException.class, () -> section.clear());
+        assertThrows(UnsupportedOperationException.class, () -> numbers.clear());
+    }
+
+    @Test
+    void diffHasAddedRemovedAndChangedKeys() {
+        ConfigSnapshot old = ConfigSnapshot.of(Map.of("a", 1, "b", Map.of("c", "same"), "removed", true));
+        ConfigSnapshot loaded = ConfigSnapshot.of(Map.of("a", 2, "b", Map.of("c", "same"), "added", List.of("x")));
+
+        assertEquals(Set.of("a", "removed", "added"), loaded.diff(old));
+        assertEquals(Set.of("a", "removed", "added"), old.diff(loaded));
+        assertTrue(loaded.diff(loaded).isEmpty());
+        assertEquals(Set.of("a", "b.c", "added"), loaded.diff(ConfigSnapshot.EMPTY));
+    }
+
+    @Test
+    void typedGettersFallBackToTheDefault() {
+        ConfigSnapshot snapshot = ConfigSnapshot.of(Map.of("number", 42, "decimal", 2.5, "text", "hello", "flag", true, "list", List.of("a")));
+
+        assertEquals(42, snapshot.getInt("number", 0));
+        assertEquals(42L, snapshot.getLong("number", 0));
+        assertEquals(2, snapshot.getInt("decimal", 0));
+        assertEquals(2.5, snapshot.getDouble("decimal", 0));
+        assertEquals("hello", snapshot.getString("text", null));
+        assertEquals("42", snapshot.getString("number", null));
+        assertTrue(snapshot.getBoolean("flag", false));
+        assertEquals(List.of("a"), snapshot.getList("list"));
+
+        assertEquals(7, snapshot.getInt("text", 7));
+        assertEquals(7L, snapshot.getLong("missing", 7));
+        assertEquals(0.5, snapshot.getDouble("flag", 0.5));
+        assertFalse(snapshot.getBoolean("number", false));
+        assertEquals("default", snapshot.getString("missing", "default"));
+        assertTrue(snapshot.getList("text").isEmpty());
+        assertNull(snapshot.get("missing"));
+    }
+}
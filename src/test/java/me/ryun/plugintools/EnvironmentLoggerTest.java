@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnvironmentLoggerTest {
+    private static final int CAPACITY = 4;
+    private static final int OVERFLOW = 6;
+
+    @Test
+    void dropNewestKeepsTheBufferedMessages() throws InterruptedException {
+        RecordingHandler handler = new RecordingHandler();
+        EnvironmentLogger logger = overflow(handler, EnvironmentLogger.OverflowPolicy.DROP_NEWEST);
+
+        assertEquals(OVERFLOW, logger.getDropped());
+        handler.release.countDown();
+        logger.close();
+
+        assertEquals(List.of("blocker", "m0", "m1", "m2", "m3"), handler.messages);
+    }
+
+    @Test
+    void dropOldestKeepsTheLatestMessages() throws InterruptedException {
+        RecordingHandler handler = new RecordingHandler();
+        EnvironmentLogger logger = overflow(handler, EnvironmentLogger.OverflowPolicy.DROP_OLDEST);
+
+        assertEquals(OVERFLOW, logger.getDropped());
+        handler.release.countDown();
+        logger.close();
+
+        assertEquals(List.of("blocker", "m6", "m7", "m8", "m9"), handler.messages);
+    }
+
+    @Test
+    void callerRunsWritesTheOverflowOnTheLoggingThread() throws InterruptedException {
+        RecordingHandler handler = new RecordingHandler();
+        EnvironmentLogger logger = overflow(handler, EnvironmentLogger.OverflowPolicy.CALLER_RUNS);
+
+        assertEquals(0, logger.getDropped());
+        assertEquals(List.of("blocker", "m4", "m5", "m6", "m7", "m8", "m9"), handler.messages);
+        assertEquals(Collections.nCopies(OVERFLOW, Thread.currentThread().getName()), handler.threads.subList(1, 1 + OVERFLOW));
+
+        handler.release.countDown();
+        logger.close();
+
+        assertEquals(List.of("blocker", "m4", "m5", "m6", "m7", "m8", "m9", "m0", "m1", "m2", "m3"), handler.messages);
+    }
+
+    @Test
+    void everyMessageIsWrittenOrDropped() throws InterruptedException {
+        for (EnvironmentLogger.OverflowPolicy policy: EnvironmentLogger.OverflowPolicy.values()) {
+            RecordingHandler handler = new RecordingHandler();
+            EnvironmentLogger logger = new EnvironmentLogger(null, logger(handler), "Test", 16, policy);
+            List<Thread> threads = new ArrayList<>();
+            int perThread = 10_000;
+
+            for(int i = 0; i < 4; i++) {
+                Thread thread = new Thread(() -> {
+                    for(int j = 0; j < perThread; j++)
+                        logger.info("message");
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            for (Thread thread: threads)
+                thread.join();
+            logger.close();
+
+            assertEquals(4L * perThread, handler.messages.size() + logger.getDropped(), policy.name());
+            assertEquals(0, logger.getPending(), policy.name());
+        }
+    }
+
+    /**
+     * Blocks the logging thread on a first message, then logs {@link #CAPACITY} messages that fill the buffer and {@link #OVERFLOW} more
+     */
+    private static EnvironmentLogger overflow(RecordingHandler handler, EnvironmentLogger.OverflowPolicy policy) throws InterruptedException {
+        EnvironmentLogger logger = new EnvironmentLogger(null, logger(handler), "Test", CAPACITY, policy);
+
+        logger.info("blocker");
+        assertTrue(handler.blocked.await(5, TimeUnit.SECONDS));
+
+        for(int i = 0; i < CAPACITY + OVERFLOW; i++)
+            logger.info("m" + i);
+
+        assertEquals(CAPACITY, logger.getPending());
+
+        return logger;
+    }
+
+    private static Logger logger(Handler handler) {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+
+        return logger;
+    }
+
+    /**
+     * Records every message, and blocks the logging thread on the one named blocker until released
+     */
+    private static final class RecordingHandler extends Handler {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void publish(LogRecord record) {
+            messages.add(record.getMessage());
+            threads.add(Thread.currentThread().getName());
+
+            if(!"blocker".equals(record.getMessage()))
+                return;
+
+            blocked.countDown();
+
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Commands, senders and executors for the tests, without a server
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * Creates a {@link Command} that does nothing when executed
+     * @param name The name of the command
+     * @return {@link Command}
+     */
+    public static Command command(String name) {
+        return new Command(name) {
+            @Override
+            public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link CommandSender} with every permission, like the console
+     * @param messages Where the messages sent to it are added
+     * @return {@link CommandSender}
+     */
+    public static CommandSender console(List<String> messages) {
+        return (CommandSender) Proxy.newProxyInstance(Fixtures.class.getClassLoader(), new Class<?>[] {CommandSender.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return "CONSOLE";
+                case "hasPermission":
+                case "isOp":
+                    return true;
+                case "sendMessage":
+                    messages.add(String.valueOf(args[0]));
+                    return null;
+                default:
+                    return object(proxy, method, args);
+            }
+        });
+    }
+
+    /**
+     * Creates an online {@link Player}
+     * @param name The name of the player
+     * @param permissions Which permissions the player has
+     * @param checks Counts every permission check
+     * @param messages Where the messages sent to it are added
+     * @return {@link Player}
+     */
+    public static Player player(String name, Predicate<String> permissions, AtomicInteger checks, List<String> messages) {
+        UUID uuid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+
+        return (Player) Proxy.newProxyInstance(Fixtures.class.getClassLoader(), new Class<?>[] {Player.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                    return name;
+                case "getUniqueId":
+                    return uuid;
+                case "isOnline":
+                    return true;
+                case "hasPermission":
+                    checks.incrementAndGet();
+                    return permissions.test(String.valueOf(args[0]));
+                case "sendMessage":
+                    messages.add(String.valueOf(args[0]));
+                    return null;
+                default:
+                    return object(proxy, method, args);
+            }
+        });
+    }
+
+    /**
+     * Creates an online {@link Player} with every permission
+     * @param name The name of the player
+     * @return {@link Player}
+     */
+    public static Player player(String name) {
+        return player(name, permission -> true, new AtomicInteger(), new ArrayList<>());
+    }
+
+    private static Object object(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "Fixture";
+            default:
+                Class<?> type = method.getReturnType();
+
+                if(type == boolean.class)
+                    return false;
+                if(type.isPrimitive() && type != void.class)
+                    return type == long.class ? 0L : type == double.class ? 0D : type == float.class ? 0F : type == char.class ? (char) 0 : (Object) 0;
+
+                return null;
+        }
+    }
+
+    /**
+     * A {@link TabExecutor} that records which commands called it
+     */
+    static class RecordingExecutor implements TabExecutor {
+        final List<String> calls = new ArrayList<>();
+        final boolean result;
+        final List<String> completions;
+
+        RecordingExecutor(boolean result, List<String> completions) {
+            this.result = result;
+            this.completions = completions;
+        }
+
+        @Override
+        public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+            calls.add(command.getName());
+
+            return result;
+        }
+
+        @Override
+        public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+            calls.add("tab:" + command.getName());
+
+            return completions;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyRecorderTest {
+    @Test
+    void nothingRecordedIsZero() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        assertEquals(0, recorder.getPercentile(50));
+        assertEquals(0, recorder.getPercentile(99));
+        assertEquals(0, recorder.getCount());
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        for(long nanos = 0; nanos < 8; nanos++)
+            recorder.record(nanos);
+
+        assertEquals(0, recorder.getPercentile(0));
+        assertEquals(3, recorder.getPercentile(50));
+        assertEquals(7, recorder.getPercentile(100));
+        assertEquals(28, recorder.getTotal());
+    }
+
+    @Test
+    void bucketBoundariesRoundUpWithinABucket() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        //8 to 15 are still exact, 16 and 17 share a bucket
+        recorder.record(8);
+        assertEquals(8, recorder.getPercentile(100));
+
+        recorder.reset();
+        recorder.record(15);
+        assertEquals(15, recorder.getPercentile(100));
+
+        recorder.reset();
+        recorder.record(16);
+        recorder.record(17);
+        assertEquals(17, recorder.getPercentile(50)); //The upper bound of the bucket, never above the max
+        assertEquals(17, recorder.getPercentile(100));
+    }
+
+    @Test
+    void percentileUsesTheRankOfTheRecordedValues() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        for(int i = 0; i < 99; i++)
+            recorder.record(1_000);
+
+        recorder.record(1_000_000);
+
+        assertTrue(recorder.getPercentile(99) < 1_000 * 1.125);
+        assertEquals(1_000_000, recorder.getPercentile(100));
+        assertEquals(1_000_000, recorder.getMax());
+    }
+
+    @Test
+    void percentilesAreAtMostAnEighthHigher() {
+        Random random = new Random(42);
+
+        for(int i = 0; i < 10_000; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            long nanos = (random.nextLong() >>> 1) >>> random.nextInt(63);
+
+            recorder.record(nanos);
+            recorder.record(Long.MAX_VALUE); //Keeps the max from hiding the upper bound
+
+            long percentile = recorder.getPercentile(50);
+
+            assertTrue(percentile >= nanos, () -> "Below " + nanos);
+            assertTrue(percentile - nanos <= nanos / 8, () -> "Too far above " + nanos + ": " + percentile);
+        }
+    }
+
+    @Test
+    void negativeAndHugeValuesDoNotOverflow() {
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        recorder.record(-5);
+        recorder.record(Long.MAX_VALUE);
+
+        assertEquals(0, recorder.getPercentile(50));
+        assertEquals(Long.MAX_VALUE, recorder.getPercentile(100));
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermissionCacheTest {
+    //The numbers are shared by every cache, so each test uses its own permissions
+    private static final int PERMISSIONS = 200;
+
+    @Test
+    void decisionsArePackedWithoutOverlapping() {
+        AtomicInteger checks = new AtomicInteger();
+        Player player = Fixtures.player("Packed", permission -> number(permission) % 3 == 0, checks, new ArrayList<>());
+        PermissionCache cache = PermissionCache.Factory.make().create();
+        int[] nodes = nodes("packed");
+
+        //Every number across the words, including the last 2 bits of each word
+        for(int i = 0; i < PERMISSIONS; i++)
+            assertEquals(i % 3 == 0, cache.hasPermission(player, nodes[i]), "packed." + i);
+        assertEquals(PERMISSIONS, checks.get());
+
+        for(int i = PERMISSIONS - 1; i >= 0; i--)
+            assertEquals(i % 3 == 0, cache.hasPermission(player, nodes[i]), "packed." + i);
+        assertEquals(PERMISSIONS, checks.get());
+        assertEquals(PERMISSIONS, cache.getHits());
+        assertEquals(PERMISSIONS, cache.getMisses());
+    }
+
+    @Test
+    void growingWhileOtherThreadsDecideIsNeverWrong() throws Exception {
+        Player player = Fixtures.player("Grown", permission -> number(permission) % 2 == 0, new AtomicInteger(), new ArrayList<>());
+        PermissionCache cache = PermissionCache.Factory.make().create();
+        int[] nodes = nodes("grown");
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        //The first decision is for a small number, so every thread grows the decisions of the same player at once
+        cache.hasPermission(player, nodes[0]);
+
+        try {
+            for(int t = 0; t < threads; t++) {
+                int offset = t;
+
+                futures.add(executor.submit(() -> {
+                    int wrong = 0;
+                    start.await();
+
+                    for(int i = 0; i < PERMISSIONS; i++) {
+                        int index = (i * 7 + offset * 31) % PERMISSIONS;
+
+                        if(cache.hasPermission(player, nodes[index]) != (index % 2 == 0))
+                            wrong++;
+                    }
+
+                    return wrong;
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<Integer> future: futures)
+                assertEquals(0, future.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1 + threads * PERMISSIONS, cache.getHits() + cache.getMisses());
+
+        //A decision lost while growing is only asked again, after which it is remembered
+        for(int i = 0; i < PERMISSIONS; i++)
+            cache.hasPermission(player, nodes[i]);
+
+        long misses = cache.getMisses();
+
+        for(int i = 0; i < PERMISSIONS; i++)
+            assertEquals(i % 2 == 0, cache.hasPermission(player, nodes[i]));
+        assertEquals(misses, cache.getMisses());
+    }
+
+    @Test
+    void decisionsExpireAfterTheTimeToLive() {
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger checks = new AtomicInteger();
+        Player player = Fixtures.player("Expired", permission -> true, checks, new ArrayList<>());
+        PermissionCache cache = PermissionCache.Factory.make()
+                .setTimeToLive(Duration.ofSeconds(1))
+                .setClock(clock::get)
+                .create();
+
+        assertTrue(cache.hasPermission(player, "expired.home"));
+        assertEquals(1, checks.get());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertTrue(cache.hasPermission(player, "expired.home"));
+        assertEquals(1, checks.get());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(cache.hasPermission(player, "expired.home"));
+        assertEquals(2, checks.get());
+        assertEquals(1, cache.size());
+
+        cache.invalidate(player);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void requiredPermissionsAreCheckedOnceAndCached() {
+        AtomicInteger checks = new AtomicInteger();
+        List<String> messages = new ArrayList<>();
+        Player player = Fixtures.player("Required", permission -> !permission.equals("required.admin"), checks, messages);
+        PluginCommands commands = new PluginCommands();
+        Fixtures.RecordingExecutor admin = new RequiredExecutor("required.admin");
+        Fixtures.RecordingExecutor home = new RequiredExecutor("required.home");
+
+        commands.setPermissionCache(PermissionCache.Factory.make().create());
+        commands.register(admin, "home");
+        commands.register(home, "home");
+
+        for(int i = 0; i < 3; i++)
+            assertTrue(commands.call(player, Fixtures.command("home"), "home", new String[0]));
+
+        assertTrue(admin.calls.isEmpty());
+        assertEquals(3, home.calls.size());
+        assertEquals(2, checks.get());
+        assertFalse(commands.hasPermission(player, PermissionCache.getNode("required.admin")));
+        assertEquals(2, checks.get());
+    }
+
+    private static int[] nodes(String prefix) {
+        int[] nodes = new int[PERMISSIONS];
+
+        for(int i = 0; i < PERMISSIONS; i++)
+            nodes[i] = PermissionCache.getNode(prefix + "." + i);
+
+        return nodes;
+    }
+
+    private static int number(String permission) {
+        return Integer.parseInt(permission.substring(permission.lastIndexOf('.') + 1));
+    }
+
+    /**
+     * A {@link Fixtures.RecordingExecutor} that needs a permission
+     */
+    private static final class RequiredExecutor extends Fixtures.RecordingExecutor implements RequiredPermission {
+        private final String permission;
+
+        private RequiredExecutor(String permission) {
+            super(true, null);
+
+            this.permission = permission;
+        }
+
+        @Override
+        public @NotNull String getRequiredPermission() {
+            return permission;
+        }
+    }
+}
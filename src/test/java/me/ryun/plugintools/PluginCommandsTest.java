@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginCommandsTest {
+    private final CommandSender console = Fixtures.console(new ArrayList<>());
+
+    @Test
+    void registeredExecutorsOnlyReceiveTheirCommands() {
+        PluginCommands commands = new PluginCommands();
+        Fixtures.RecordingExecutor warp = new Fixtures.RecordingExecutor(true, null);
+        Fixtures.RecordingExecutor everything = new Fixtures.RecordingExecutor(false, null);
+
+        commands.register(warp, "warp", "w");
+        commands.add(everything);
+
+        assertTrue(commands.call(console, Fixtures.command("warp"), "w", new String[0]));
+        assertFalse(commands.call(console, Fixtures.command("home"), "home", new String[0]));
+        assertEquals(List.of("warp"), warp.calls);
+        assertEquals(List.of("home"), everything.calls);
+    }
+
+    @Test
+    void setThroughListIteratorKeepsIterating() {
+        PluginCommands commands = new PluginCommands();
+        Fixtures.RecordingExecutor replacement = new Fixtures.RecordingExecutor(true, null);
+
+        commands.add(new Fixtures.RecordingExecutor(false, null));
+        commands.add(new Fixtures.RecordingExecutor(false, null));
+
+        ListIterator<TabExecutor> iterator = commands.listIterator();
+        iterator.next();
+        iterator.set(replacement);
+        iterator.next(); //Would throw if set was counted as a structural modification
+
+        assertTrue(commands.call(console, Fixtures.command("test"), "test", new String[0]));
+        assertEquals(List.of("test"), replacement.calls);
+    }
+
+    @Test
+    void setThroughSubListRebuildsTheIndex() {
+        PluginCommands commands = new PluginCommands();
+        Fixtures.RecordingExecutor replacement = new Fixtures.RecordingExecutor(true, null);
+
+        commands.add(new Fixtures.RecordingExecutor(false, null));
+        commands.add(new Fixtures.RecordingExecutor(false, null));
+        assertFalse(commands.call(console, Fixtures.command("test"), "test", new String[0]));
+
+        commands.subList(1, 2).set(0, replacement);
+
+        assertTrue(commands.call(console, Fixtures.command("test"), "test", new String[0]));
+        assertEquals(replacement, commands.get(1));
+    }
+
+    @Test
+    void structuralChangesThroughSubListRebuildTheIndex() {
+        PluginCommands commands = new PluginCommands();
+        Fixtures.RecordingExecutor added = new Fixtures.RecordingExecutor(true, null);
+
+        commands.add(new Fixtures.RecordingExecutor(false, null));
+        assertFalse(commands.call(console, Fixtures.command("test"), "test", new String[0]));
+
+        commands.subList(0, 1).add(added);
+        assertTrue(commands.call(console, Fixtures.command("test"), "test", new String[0]));
+
+        commands.subList(0, 2).clear();
+        assertFalse(commands.call(console, Fixtures.command("test"), "test", new String[0]));
+        assertTrue(commands.isEmpty());
+    }
+}
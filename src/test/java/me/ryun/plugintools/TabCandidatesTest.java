@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TabCandidatesTest {
+    private final CommandSender console = Fixtures.console(new ArrayList<>());
+
+    /**
+     * Completes "add" or "remove", then a player name only after "add"
+     */
+    private static final class Candidates extends Fixtures.RecordingExecutor implements TabCandidates {
+        private Candidates() {
+            super(true, List.of("called"));
+        }
+
+        @Override
+        public @NotNull String[][] getTabCandidates() {
+            return new String[][] {{"add", "remove"}, {"Steve", "Alex"}};
+        }
+    }
+
+    @Test
+    void registeredCandidatesAreAnsweredWithoutCallingTheExecutor() {
+        PluginCommands commands = new PluginCommands();
+        Candidates candidates = new Candidates();
+
+        commands.register(candidates, "friends");
+
+        assertEquals(List.of("add"), commands.completeTab(console, Fixtures.command("friends"), "friends", new String[] {"a"}));
+        assertEquals(List.of("Steve"), commands.completeTab(console, Fixtures.command("friends"), "friends", new String[] {"ADD", "s"}));
+        assertEquals(List.of(), candidates.calls);
+    }
+
+    @Test
+    void candidatesDoNotLeakIntoOtherCommands() {
+        PluginCommands commands = new PluginCommands();
+        Candidates candidates = new Candidates();
+        Fixtures.RecordingExecutor other = new Fixtures.RecordingExecutor(true, List.of("other"));
+
+        commands.register(candidates, "friends");
+        commands.register(other, "warp");
+
+        assertEquals(List.of("other"), commands.completeTab(console, Fixtures.command("warp"), "warp", new String[] {""}));
+        assertEquals(List.of(), candidates.calls);
+    }
+
+    @Test
+    void unnamedCandidatesAreCalledForEveryCommand() {
+        PluginCommands commands = new PluginCommands();
+        Candidates candidates = new Candidates();
+
+        commands.add(candidates);
+
+        assertEquals(List.of("called"), commands.completeTab(console, Fixtures.command("warp"), "warp", new String[] {"a"}));
+        assertEquals(List.of("tab:warp"), candidates.calls);
+    }
+
+    @Test
+    void earlierArgumentsHaveToBeCandidates() {
+        PluginCommands commands = new PluginCommands();
+        Candidates candidates = new Candidates();
+
+        commands.register(candidates, "friends");
+
+        assertEquals(List.of("called"), commands.completeTab(console, Fixtures.command("friends"), "friends", new String[] {"list", "s"}));
+        assertEquals(List.of("tab:friends"), candidates.calls);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TabCompletionCacheTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final Fixtures.RecordingExecutor executor = new Fixtures.RecordingExecutor(true, List.of("home", "spawn"));
+    private final Command command = Fixtures.command("warp");
+    private final Player steve = Fixtures.player("Steve");
+    private final Player alex = Fixtures.player("Alex");
+
+    @Test
+    void entriesExpireAfterTheTimeToLive() {
+        TabCompletionCache cache = cache(Duration.ofSeconds(1), 16);
+
+        List<String> first = complete(cache, steve, "h");
+        advance(999);
+        assertSame(first, complete(cache, steve, "h"));
+        assertEquals(1, executor.calls.size());
+
+        advance(1);
+        assertEquals(List.of("home", "spawn"), complete(cache, steve, "h"));
+        assertEquals(2, executor.calls.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        advance(1000);
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void entriesAreKeptForEachSenderAndArguments() {
+        TabCompletionCache cache = cache(Duration.ofSeconds(5), 16);
+
+        complete(cache, steve, "h");
+        complete(cache, alex, "h");
+        complete(cache, steve, "s");
+        complete(cache, Fixtures.console(new ArrayList<>()), "h");
+        assertEquals(4, executor.calls.size());
+
+        complete(cache, steve, "h");
+        complete(cache, alex, "h");
+        assertEquals(4, executor.calls.size());
+
+        cache.invalidate(steve);
+        assertEquals(2, cache.size());
+        complete(cache, alex, "h");
+        complete(cache, steve, "h");
+        assertEquals(5, executor.calls.size());
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() {
+        TabCompletionCache cache = cache(Duration.ofMinutes(1), 4);
+
+        for (String prefix: new String[] {"a", "b", "c", "d"}) {
+            advance(1);
+            complete(cache, steve, prefix);
+        }
+
+        advance(1);
+        complete(cache, steve, "a");
+        assertEquals(4, executor.calls.size());
+
+        //Over the maximum, so the least recently used are evicted down to a quarter below it
+        advance(1);
+        complete(cache, steve, "e");
+        assertEquals(3, cache.size());
+
+        complete(cache, steve, "a");
+        complete(cache, steve, "d");
+        complete(cache, steve, "e");
+        assertEquals(5, executor.calls.size());
+
+        complete(cache, steve, "b");
+        assertEquals(6, executor.calls.size());
+    }
+
+    @Test
+    void expiredEntriesAreEvictedFirst() {
+        TabCompletionCache cache = cache(Duration.ofSeconds(1), 2);
+
+        complete(cache, steve, "a");
+        advance(500);
+        complete(cache, steve, "b");
+        advance(600);
+
+        //"a" expired, so "b" is kept even though a quarter of 2 is nothing
+        complete(cache, steve, "c");
+        assertEquals(2, cache.size());
+        complete(cache, steve, "b");
+        assertEquals(3, executor.calls.size());
+    }
+
+    private TabCompletionCache cache(Duration timeToLive, int maximumSize) {
+        return TabCompletionCache.Factory.make()
+                .setTimeToLive(timeToLive)
+                .setMaximumSize(maximumSize)
+                .setClock(clock::get)
+                .create();
+    }
+
+    private List<String> complete(TabCompletionCache cache, CommandSender sender, String prefix) {
+        return cache.complete(executor, sender, command, "warp", new String[] {prefix});
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingsExecutorTest {
+    private static final class TestPlugin extends JavaPlugin {
+    }
+
+    @Test
+    void onlyHandlesItsOwnCommand() {
+        PluginCommands commands = new PluginCommands();
+        List<String> messages = new ArrayList<>();
+        Fixtures.RecordingExecutor other = new Fixtures.RecordingExecutor(true, List.of("other"));
+
+        //Added without a name, it still receives every command
+        commands.add(new TimingsExecutor(CommandTimings.Factory.make().create(), "example.timings", "timings"));
+        commands.add(other);
+
+        assertTrue(commands.call(Fixtures.console(messages), Fixtures.command("warp"), "warp", new String[0]));
+        assertEquals(List.of("warp"), other.calls);
+        assertEquals(List.of(), messages);
+        assertEquals(List.of("other"), commands.completeTab(Fixtures.console(messages), Fixtures.command("warp"), "warp", new String[] {"r"}));
+    }
+
+    @Test
+    void playersWithoutPermissionAreSkipped() {
+        PluginCommands commands = new PluginCommands();
+        List<String> messages = new ArrayList<>();
+        AtomicInteger checks = new AtomicInteger();
+        Player player = Fixtures.player("Steve", permission -> false, checks, messages);
+
+        commands.setPermissionCache(PermissionCache.Factory.make().create());
+        new TimingsExecutor(CommandTimings.Factory.make().create(), "example.timings", "timings", "t").registerTo(commands);
+
+        assertFalse(commands.call(player, Fixtures.command("timings"), "t", new String[0]));
+        assertEquals(List.of(), commands.completeTab(player, Fixtures.command("timings"), "t", new String[] {"r"}));
+        assertEquals(List.of(), messages);
+        assertEquals(1, checks.get()); //Only through the cache
+    }
+
+    @Test
+    void resetsWithPermission() {
+        PluginCommands commands = new PluginCommands();
+        CommandTimings timings = CommandTimings.Factory.make().isDetailed(true).create();
+        List<String> messages = new ArrayList<>();
+        Player player = Fixtures.player("Alex", permission -> true, new AtomicInteger(), messages);
+
+        commands.setTimings(timings);
+        new TimingsExecutor(timings, "example.timings", "timings").registerTo(commands);
+
+        assertEquals(List.of("reset"), commands.completeTab(player, Fixtures.command("timings"), "timings", new String[] {"R"}));
+        assertTrue(commands.call(player, Fixtures.command("timings"), "timings", new String[] {"reset"}));
+        assertEquals(List.of("Command timings were reset."), messages);
+    }
+
+    @Test
+    void detailFollowsTheEnvironmentOfThePlugin() {
+        JavaPlugin plugin = new TestPlugin();
+
+        try {
+            PluginEnvironment.Factory.make().setPlugin(plugin).isDevelopment(false).isVerbose(false).create();
+            //Another plugin sharing this class creates the latest environment
+            PluginEnvironment.Factory.make().isDevelopment(true).create();
+
+            assertFalse(CommandTimings.Factory.make().setPlugin(plugin).create().isDetailed());
+            assertTrue(CommandTimings.Factory.make().create().isDetailed());
+        } finally {
+            PluginEnvironment.unregister(plugin);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools;
+
+import me.ryun.plugintools.simulation.SimulatedServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkSchedulerTest {
+    private final SimulatedServer server = new SimulatedServer(0);
+    private final List<String> ran = new ArrayList<>();
+
+    @BeforeEach
+    void install() {
+        assertTrue(server.install());
+    }
+
+    @Test
+    void higherPrioritiesRunFirst() {
+        WorkScheduler scheduler = start(Duration.ofSeconds(1));
+
+        scheduler.submit(WorkScheduler.Priority.LOW, () -> ran.add("low"));
+        scheduler.submit(WorkScheduler.Priority.NORMAL, () -> ran.add("normal"));
+        scheduler.submit(WorkScheduler.Priority.HIGH, () -> ran.add("high"));
+        scheduler.submit(WorkScheduler.Priority.HIGH, () -> ran.add("second high"));
+        server.tick();
+
+        assertEquals(List.of("high", "second high", "normal", "low"), ran);
+        assertEquals(0, scheduler.getBacklog());
+    }
+
+    @Test
+    void everyTickDoesAtLeastOneStep() {
+        WorkScheduler scheduler = start(Duration.ofNanos(1));
+        CompletableFuture<Void> future = scheduler.submitBatch(WorkScheduler.Priority.NORMAL, List.of("a", "b", "c"), ran::add);
+
+        server.tick();
+        assertEquals(List.of("a"), ran);
+
+        server.tick();
+        server.tick();
+        assertEquals(List.of("a", "b", "c"), ran);
+        assertTrue(future.isDone());
+        assertEquals(0, scheduler.getBacklog());
+    }
+
+    @Test
+    void waitingJobsWithTheSameKeyAreCoalesced() {
+        WorkScheduler scheduler = start(Duration.ofSeconds(1));
+
+        CompletableFuture<Void> first = scheduler.submit(WorkScheduler.Priority.NORMAL, "scoreboard", () -> ran.add("first"));
+        CompletableFuture<Void> second = scheduler.submit(WorkScheduler.Priority.NORMAL, "scoreboard", () -> ran.add("second"));
+
+        assertSame(first, second);
+        assertEquals(1, scheduler.getBacklog());
+
+        server.tick();
+        assertEquals(List.of("second"), ran);
+        assertTrue(first.isDone());
+    }
+
+    @Test
+    void startedJobsAreNeverReplaced() {
+        WorkScheduler scheduler = start(Duration.ofNanos(1));
+        int[] steps = new int[1];
+
+        CompletableFuture<Void> first = scheduler.submitIncremental(WorkScheduler.Priority.NORMAL, "region", () -> {
+            ran.add("first " + steps[0]);
+
+            return ++steps[0] == 2;
+        });
+
+        server.tick();
+
+        //Half of the first job is done, so the same key queues a new one behind it
+        CompletableFuture<Void> second = scheduler.submit(WorkScheduler.Priority.NORMAL, "region", () -> ran.add("second"));
+        assertNotSame(first, second);
+        assertEquals(2, scheduler.getBacklog());
+
+        server.tick();
+        server.tick();
+        assertEquals(List.of("first 0", "first 1", "second"), ran);
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+    }
+
+    @Test
+    void errorsFailTheJobAndLeaveTheBacklog() {
+        WorkScheduler scheduler = start(Duration.ofSeconds(1));
+
+        CompletableFuture<Void> failed = scheduler.submit(WorkScheduler.Priority.NORMAL, "key", () -> {
+            throw new AssertionError("Broken");
+        });
+        server.tick();
+
+        ExecutionException exception = assertThrows(ExecutionException.class, failed::get);
+        assertInstanceOf(AssertionError.class, exception.getCause());
+        assertEquals(0, scheduler.getBacklog());
+
+        //The key is free again
+        CompletableFuture<Void> next = scheduler.submit(WorkScheduler.Priority.NORMAL, "key", () -> ran.add("next"));
+        assertNotSame(failed, next);
+        assertFalse(next.isDone());
+
+        server.tick();
+        assertEquals(List.of("next"), ran);
+    }
+
+    private WorkScheduler start(Duration budget) {
+        WorkScheduler scheduler = WorkScheduler.Factory.make()
+                .setPlugin(server.getPlugin())
+                .setBudget(budget)
+                .create();
+
+        scheduler.start();
+        server.tick(); //The repeating task starts on the next tick
+
+        return scheduler;
+    }
+}
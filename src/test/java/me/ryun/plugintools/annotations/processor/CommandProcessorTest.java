@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.annotations.processor;
+
+import me.ryun.plugintools.PluginCommands;
+import me.ryun.plugintools.annotations.Command;
+import me.ryun.plugintools.simulation.Headless;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandProcessorTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void generatesADispatcherThatCallsTheMethods() throws Exception {
+        Compilation compilation = compile(source("example.WarpCommands",
+                "package example;",
+                "import me.ryun.plugintools.annotations.*;",
+                "import org.bukkit.command.CommandSender;",
+                "import java.util.ArrayList;",
+                "import java.util.List;",
+                "public class WarpCommands {",
+                "    public final List<String> calls = new ArrayList<>();",
+                "    @Command(value = \"warp\", aliases = \"w\")",
+                "    public boolean warp(CommandSender sender, String[] args) { calls.add(\"warp \" + args.length); return true; }",
+                "    @Subcommand(command = \"warp\", value = \"set\", aliases = \"s\")",
+                "    public void set(CommandSender sender, String[] args) { calls.add(\"set \" + String.join(\",\", args)); }",
+                "    @TabComplete(command = \"warp\")",
+                "    public List<String> complete(CommandSender sender, String[] args) { return List.of(\"spawn\"); }",
+                "}"));
+
+        assertTrue(compilation.errors().isEmpty(), compilation.errors()::toString);
+
+        String generated = Files.readString(directory.resolve("generated/example/WarpCommands_Dispatcher.java"));
+        assertTrue(generated.contains("public final class WarpCommands_Dispatcher implements org.bukkit.command.TabExecutor"), generated);
+        assertTrue(generated.contains("case \"w\":"), generated);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {directory.resolve("classes").toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> handlerType = loader.loadClass("example.WarpCommands");
+            Object handler = handlerType.getConstructor().newInstance();
+            TabExecutor dispatcher = (TabExecutor) loader.loadClass("example.WarpCommands_Dispatcher").getConstructor(handlerType).newInstance(handler);
+            CommandSender sender = Headless.sender("Tester");
+
+            assertTrue(dispatcher.onCommand(sender, Headless.command("W"), "w", new String[] {"S", "spawn"}));
+            assertTrue(dispatcher.onCommand(sender, Headless.command("warp"), "warp", new String[] {"spawn"}));
+            assertFalse(dispatcher.onCommand(sender, Headless.command("home"), "home", new String[0]));
+            assertEquals(List.of("set spawn", "warp 1"), handlerType.getField("calls").get(handler));
+            assertEquals(List.of("set", "spawn"), dispatcher.onTabComplete(sender, Headless.command("warp"), "warp", new String[] {""}));
+
+            PluginCommands commands = new PluginCommands();
+            assertTrue((Boolean) dispatcher.getClass().getMethod("registerTo", PluginCommands.class).invoke(dispatcher, commands));
+            assertTrue(commands.call(sender, Headless.command("w"), "w", new String[0]));
+        }
+    }
+
+    @Test
+    void commandAliasesCantBeAnotherCommand() throws IOException {
+        Compilation compilation = compile(
+                source("example.Warps",
+                        "package example;",
+                        "import me.ryun.plugintools.annotations.*;",
+                        "public class Warps {",
+                        "    @Command(value = \"warp\", aliases = {\"w\", \"Home\"})",
+                        "    public boolean warp(org.bukkit.command.CommandSender sender, String[] args) { return true; }",
+                        "}"),
+                source("example.Homes",
+                        "package example;",
+                        "import me.ryun.plugintools.annotations.*;",
+                        "public class Homes {",
+                        "    @Command(\"home\")",
+                        "    public boolean home(org.bukkit.command.CommandSender sender, String[] args) { return true; }",
+                        "}"));
+
+        assertEquals(List.of("\"home\" of /warp is already a name or alias of /home"), compilation.errors());
+        assertEquals(List.of("example/Warps.java"), compilation.errorSources());
+    }
+
+    @Test
+    void commandsCantBeDeclaredInTwoClasses() throws IOException {
+        Compilation compilation = compile(
+                source("example.First",
+                        "package example;",
+                        "public class First {",
+                        "    @me.ryun.plugintools.annotations.Command(\"warp\")",
+                        "    public void warp(org.bukkit.command.CommandSender sender, String[] args) { }",
+                        "}"),
+                source("example.Second",
+                        "package example;",
+                        "public class Second {",
+                        "    @me.ryun.plugintools.annotations.Subcommand(command = \"warp\", value = \"set\")",
+                        "    public void set(org.bukkit.command.CommandSender sender, String[] args) { }",
+                        "}"));
+
+        assertEquals(List.of("\"warp\" of /warp is already a name or alias of /warp"), compilation.errors());
+    }
+
+    @Test
+    void subcommandAliasesCantBeUsedTwice() throws IOException {
+        Compilation compilation = compile(source("example.Warps",
+                "package example;",
+                "import me.ryun.plugintools.annotations.*;",
+                "import org.bukkit.command.CommandSender;",
+                "public class Warps {",
+                "    @Subcommand(command = \"warp\", value = \"set\", aliases = \"s\")",
+                "    public void set(CommandSender sender, String[] args) { }",
+                "    @Subcommand(command = \"warp\", value = \"show\", aliases = {\"s\", \"info\"})",
+                "    public void show(CommandSender sender, String[] args) { }",
+                "    @Subcommand(command = \"warp\", value = \"info\")",
+                "    public void info(CommandSender sender, String[] args) { }",
+                "}"));
+
+        assertEquals(List.of(
+                "\"s\" of /warp show is already a name or alias of /warp set",
+                "\"info\" of /warp show is already a name or alias of /warp info"), compilation.errors());
+    }
+
+    private Compilation compile(JavaFileObject... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+        Path generated = Files.createDirectories(directory.resolve("generated"));
+
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8)) {
+            files.setLocation(StandardLocation.CLASS_OUTPUT, List.of(classes.toFile()));
+            files.setLocation(StandardLocation.SOURCE_OUTPUT, List.of(generated.toFile()));
+            files.setLocation(StandardLocation.CLASS_PATH, classPath());
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics, List.of("-Xlint:none"), null, List.of(sources));
+            task.setProcessors(List.of(new CommandProcessor()));
+            task.call();
+        }
+
+        return new Compilation(diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * The annotations, Bukkit and the plugin tools, wherever the test runs
+     */
+    private static List<File> classPath() {
+        Set<File> path = new LinkedHashSet<>();
+
+        for (Class<?> type: new Class<?>[] {Command.class, CommandSender.class, PluginCommands.class})
+            path.add(location(type));
+        for (String entry: System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if(!entry.isEmpty())
+                path.add(new File(entry));
+        }
+
+        return new ArrayList<>(path);
+    }
+
+    private static File location(Class<?> type) {
+        try {
+            return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toFile();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JavaFileObject source(String name, String... lines) {
+        return new SimpleJavaFileObject(URI.create("string:///" + name.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return String.join("\n", lines);
+            }
+        };
+    }
+
+    /**
+     * The errors of a compilation
+     */
+    private static final class Compilation {
+        private final List<Diagnostic<? extends JavaFileObject>> errors;
+
+        private Compilation(List<Diagnostic<? extends JavaFileObject>> errors) {
+            this.errors = errors;
+        }
+
+        private List<String> errors() {
+            return errors.stream().map(error -> error.getMessage(Locale.ROOT)).collect(Collectors.toList());
+        }
+
+        private List<String> errorSources() {
+            return errors.stream().map(error -> error.getSource().toUri().getPath().substring(1)).collect(Collectors.toList());
+        }
+    }
+}
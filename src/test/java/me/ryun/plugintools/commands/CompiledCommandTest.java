@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.commands;
+
+import me.ryun.plugintools.Fixtures;
+import me.ryun.plugintools.PermissionCache;
+import me.ryun.plugintools.PluginCommands;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledCommandTest {
+    private final List<String> executed = new ArrayList<>();
+    private final List<String> messages = new ArrayList<>();
+    private final AtomicInteger checks = new AtomicInteger();
+    private final Player admin = Fixtures.player("Admin", permission -> true, new AtomicInteger(), messages);
+    private final Player member = Fixtures.player("Member", permission -> !permission.equals("warps.set"), checks, messages);
+    private final PluginCommands commands = new PluginCommands();
+
+    CompiledCommandTest() {
+        CommandTree.command("warp", "w")
+                .then(CommandTree.literal("set")
+                        .permission("warps.set")
+                        .then(CommandTree.argument("name", ArgumentType.word())
+                                .executes(context -> executed.add("set " + context.get("name")))))
+                .then(CommandTree.literal("list")
+                        .executes(context -> executed.add("list")))
+                .then(CommandTree.argument("name", ArgumentType.word())
+                        .executes(context -> executed.add("warp " + context.get("name"))))
+                .compile()
+                .registerTo(commands);
+        CommandTree.command("pay")
+                .then(CommandTree.argument("amount", ArgumentType.integer(1, 100))
+                        .then(CommandTree.argument("player", ArgumentType.choice("Alice", "Bob"))
+                                .executes(context -> executed.add("pay " + context.<Integer>get("amount") + " " + context.get("player")))))
+                .compile()
+                .registerTo(commands);
+        CommandTree.command("say")
+                .then(CommandTree.argument("message", ArgumentType.greedyString())
+                        .executes(context -> executed.add("say " + context.get("message"))))
+                .compile()
+                .registerTo(commands);
+    }
+
+    @Test
+    void literalsAreTriedBeforeArguments() {
+        assertTrue(call(admin, "warp", "list"));
+        assertTrue(call(admin, "warp", "spawn"));
+        assertTrue(call(admin, "w", "set", "home"));
+
+        assertEquals(List.of("list", "warp spawn", "set home"), executed);
+    }
+
+    @Test
+    void greedyArgumentsJoinTheRemainingArguments() {
+        assertTrue(call(admin, "say", "hello", "there", "world"));
+
+        assertEquals(List.of("say hello there world"), executed);
+    }
+
+    @Test
+    void deniedBranchesAreHidden() {
+        commands.setPermissionCache(PermissionCache.Factory.make().create());
+
+        //Without the permission, "set" is just the name of a warp
+        assertTrue(call(member, "warp", "set"));
+        assertFalse(call(member, "warp", "set", "home"));
+        assertEquals(List.of("warp set"), executed);
+
+        assertEquals(List.of("list"), complete(member, "warp", ""));
+        assertEquals(List.of("set", "list"), complete(admin, "warp", ""));
+
+        //The cache answered every check after the first one
+        assertEquals(1, checks.get());
+    }
+
+    @Test
+    void badArgumentsSendTheParseErrorAndMissingOnesTheUsage() {
+        assertTrue(call(admin, "pay", "abc", "Bob"));
+        assertTrue(call(admin, "pay", "500", "Bob"));
+        assertTrue(call(admin, "pay", "5", "Carol"));
+        assertEquals(List.of("'abc' is not a whole number.", "500 has to be between 1 and 100.", "'Carol' has to be one of alice, bob."), messages);
+
+        //False lets Bukkit send the usage from the plugin.yml
+        assertFalse(call(admin, "pay", "5"));
+        assertFalse(call(admin, "pay"));
+        assertEquals(3, messages.size());
+
+        assertTrue(call(admin, "pay", "5", "bob"));
+        assertEquals(List.of("pay 5 Bob"), executed); //The choice as declared, not as typed
+    }
+
+    @Test
+    void completesAtEveryDepth() {
+        assertEquals(List.of("set", "list"), complete(admin, "warp", ""));
+        assertEquals(List.of("set"), complete(admin, "warp", "S"));
+        assertEquals(List.of(), complete(admin, "warp", "set", ""));
+
+        assertEquals(List.of(), complete(admin, "pay", ""));
+        assertEquals(List.of("Alice", "Bob"), complete(admin, "pay", "5", ""));
+        assertEquals(List.of("Alice"), complete(admin, "pay", "5", "a"));
+        assertEquals(List.of(), complete(admin, "pay", "abc", ""));
+        assertEquals(List.of(), complete(admin, "pay", "5", "Bob", ""));
+    }
+
+    private boolean call(Player player, String label, String... args) {
+        return commands.call(player, Fixtures.command(label), label, args);
+    }
+
+    private List<String> complete(Player player, String label, String... args) {
+        return commands.completeTab(player, Fixtures.command(label), label, args);
+    }
+}
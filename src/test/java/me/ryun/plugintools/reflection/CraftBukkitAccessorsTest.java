@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.reflection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CraftBukkitAccessorsTest {
+    @Test
+    void publicMethodsAreLinkedAndCached() {
+        IntUnaryOperator twice = CraftBukkitAccessors.lambda(IntUnaryOperator.class, Target.class, "twice", int.class);
+
+        assertEquals(42, twice.applyAsInt(21));
+        assertSame(twice, CraftBukkitAccessors.lambda(IntUnaryOperator.class, Target.class, "twice", int.class));
+    }
+
+    @Test
+    void privateMethodsFallBackToTheProxy() {
+        IntUnaryOperator negate = CraftBukkitAccessors.lambda(IntUnaryOperator.class, Target.class, "negate", int.class);
+
+        assertEquals(-21, negate.applyAsInt(21));
+        assertSame(negate, CraftBukkitAccessors.lambda(IntUnaryOperator.class, Target.class, "negate", int.class));
+    }
+
+    @Test
+    void instanceMethodsTakeTheInstanceFirst() {
+        @SuppressWarnings("unchecked")
+        ToIntFunction<Target> value = CraftBukkitAccessors.lambda(ToIntFunction.class, Target.class, "value");
+
+        assertEquals(7, value.applyAsInt(new Target()));
+    }
+
+    @Test
+    void nonFunctionalInterfacesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CraftBukkitAccessors.lambda(Iterator.class, Target.class, "twice", int.class));
+        assertThrows(IllegalArgumentException.class, () -> CraftBukkitAccessors.lambda(Object.class, Target.class, "twice", int.class));
+    }
+
+    public static class Target {
+        public static int twice(int value) {
+            return value * 2;
+        }
+
+        @SuppressWarnings("unused")
+        private static int negate(int value) {
+            return -value;
+        }
+
+        public int value() {
+            return 7;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.reflection;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JarClassIndexTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void indexesClassesAndPackages() throws IOException {
+        Path jar = jar("small.jar", null, List.of(
+                "org/bukkit/craftbukkit/v1_20_R1/CraftServer.class",
+                "org/bukkit/craftbukkit/v1_20_R1/entity/CraftPlayer.class",
+                "org/bukkit/craftbukkit/v1_19_R3/CraftServer.class",
+                "org/bukkit/craftbukkit/util/Versioning.class",
+                "Main.class",
+                "META-INF/versions/17/module-info.class",
+                "plugin.yml"));
+        JarClassIndex index = JarClassIndex.of(jar);
+
+        assertEquals(5, index.size());
+        assertTrue(index.hasClass("org.bukkit.craftbukkit.v1_20_R1.entity.CraftPlayer"));
+        assertTrue(index.hasClass("Main"));
+        assertFalse(index.hasClass("module-info"));
+        assertTrue(index.hasPackage("org.bukkit.craftbukkit.v1_20_R1.entity"));
+        assertTrue(index.hasPackage(""));
+        assertFalse(index.hasPackage("org.bukkit"));
+        assertEquals(List.of("org.bukkit.craftbukkit.v1_19_R3", "org.bukkit.craftbukkit.v1_20_R1"), index.getVersionedPackages("org.bukkit.craftbukkit"));
+    }
+
+    @Test
+    void findsTheEndOfCentralDirectoryBeforeAComment() throws IOException {
+        Path jar = jar("commented.jar", "x".repeat(0xFFFF), List.of("a/A.class", "b/B.class"));
+        JarClassIndex index = JarClassIndex.of(jar);
+
+        assertEquals(2, index.size());
+        assertTrue(index.hasClass("b.B"));
+    }
+
+    @Test
+    void readsTheZip64RecordOfJarsWithTooManyEntries() throws IOException {
+        int count = 0xFFFF + 100;
+        Path jar = directory.resolve("zip64.jar");
+
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for(int i = 0; i < count; i++) {
+                out.putNextEntry(new ZipEntry("generated/p" + (i % 10) + "/C" + i + ".class"));
+                out.closeEntry();
+            }
+        }
+
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            assertEquals(count, zip.size()); //Sanity check that the fixture is a valid zip64 file
+        }
+
+        JarClassIndex index = JarClassIndex.of(jar);
+
+        assertEquals(count, index.size());
+        assertTrue(index.hasClass("generated.p" + ((count - 1) % 10) + ".C" + (count - 1)));
+        assertTrue(index.hasPackage("generated.p0"));
+        assertFalse(index.hasClass("generated.p0.C" + count));
+    }
+
+    @Test
+    void rejectsFilesThatAreNotZips() throws IOException {
+        Path file = directory.resolve("plain.jar");
+        Files.write(file, "Not a zip file at all, just some text".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> JarClassIndex.of(file));
+    }
+
+    private Path jar(String name, String comment, List<String> entries) throws IOException {
+        Path jar = directory.resolve(name);
+
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            if(comment != null)
+                out.setComment(comment);
+
+            for (String entry: entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                write(out, entry);
+                out.closeEntry();
+            }
+        }
+
+        return jar;
+    }
+
+    private static void write(OutputStream out, String content) throws IOException {
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.simulation;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Lightweight stand-ins for the Bukkit types that {@link me.ryun.plugintools.PluginCommands} needs, so the simulation, the tests and the benchmarks run without a server
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public final class Headless {
+    private Headless() {}
+
+    /**
+     * Creates a {@link CommandSender} where every method returns its default value, except for {@link CommandSender#getName()} and
+     * {@link CommandSender#hasPermission(String)} which always returns true
+     * @param name The name of the sender
+     * @return {@link CommandSender}
+     */
+    public static @NotNull CommandSender sender(@NotNull String name) {
+        return proxy(CommandSender.class, name, null);
+    }
+
+    /**
+     * Creates an online {@link Player} like {@link #sender(String)}, which also has a {@link UUID}
+     * @param name The name of the player
+     * @return {@link Player}
+     */
+    public static @NotNull Player player(@NotNull String name) {
+        return proxy(Player.class, name, UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Creates a {@link Command} that does nothing when executed
+     * @param name The name of the command
+     * @return {@link Command}
+     */
+    public static @NotNull Command command(@NotNull String name) {
+        return new Command(name) {
+            @Override
+            public boolean execute(@NotNull CommandSender sender, @NotNull String commandLabel, @NotNull String[] args) {
+                return false;
+            }
+        };
+    }
+
+    private static <T extends CommandSender> T proxy(Class<T> type, String name, UUID uniqueId) {
+        return type.cast(Proxy.newProxyInstance(Headless.class.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName":
+                case "toString":
+                    return name;
+                case "getUniqueId":
+                    return uniqueId;
+                case "hasPermission":
+                case "isOnline":
+                    return true;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        }));
+    }
+
+    /**
+     * The value every other method of a stand-in returns
+     * @param type The return type
+     * @return The default value of the type
+     */
+    public static Object defaultValue(@NotNull Class<?> type) {
+        if(type == boolean.class)
+            return false;
+        if(type == int.class)
+            return 0;
+        if(type == long.class)
+            return 0L;
+        if(type == double.class)
+            return 0.0;
+        if(type == float.class)
+            return 0.0f;
+        if(type == short.class)
+            return (short) 0;
+        if(type == byte.class)
+            return (byte) 0;
+        if(type == char.class)
+            return '\0';
+
+        return null;
+    }
+}
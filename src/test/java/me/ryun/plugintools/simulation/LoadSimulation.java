@@ -0,0 +1,663 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.simulation;
+
+import me.ryun.plugintools.CommandRateLimiter;
+import me.ryun.plugintools.ConcurrentPluginCommands;
+import me.ryun.plugintools.PluginCommands;
+import me.ryun.plugintools.TabCompletionCache;
+import org.bukkit.command.Command;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a {@link PluginCommands} with many simulated players on a {@link SimulatedServer}. Every tick, each player has a chance to run a command on the server thread
+ * and to request a tab completion, which is answered by separate threads like Paper does. Reports the throughput, the time each tick spent on commands,
+ * the tab completion latency, how much was allocated and what the {@link CommandRateLimiter} and {@link TabCompletionCache} of the {@link PluginCommands} did.
+ * Runs from the tests, or with {@code gradlew simulate}
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public final class LoadSimulation {
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int MAXIMUM_DRAIN_TICKS = 20 * 60;
+    private static final String[][] ARGUMENTS = {{}, {"add"}, {"list", "2"}, {"remove", "Player1"}};
+    private static final String[][] PARTIAL_ARGUMENTS = {{""}, {"a"}, {"li"}, {"remove", "P"}};
+
+    private final PluginCommands commands;
+    private final NamedExecutor[] executors;
+    private final Command[] commandList;
+    private final SimulatedServer server;
+    private final int players;
+    private final int ticks;
+    private final double commandsPerSecond;
+    private final double completionsPerSecond;
+    private final int completionThreads;
+    private final boolean isRealTime;
+    private final long seed;
+
+    /**
+     * A private instance method to avoid the clutter when selecting the methods for each variable you need to use
+     */
+    private LoadSimulation(PluginCommands commands, NamedExecutor[] executors, String[] commandNames, SimulatedServer server, int players, int ticks, double commandsPerSecond, double completionsPerSecond, int completionThreads, boolean isRealTime, long seed) {
+        this.commands = commands;
+        this.executors = executors;
+        this.commandList = new Command[commandNames.length];
+        this.server = server;
+        this.players = players;
+        this.ticks = ticks;
+        this.commandsPerSecond = commandsPerSecond;
+        this.completionsPerSecond = completionsPerSecond;
+        this.completionThreads = completionThreads;
+        this.isRealTime = isRealTime;
+        this.seed = seed;
+
+        for(int i = 0; i < commandNames.length; i++)
+            commandList[i] = Headless.command(commandNames[i]);
+    }
+
+    /**
+     * Runs the simulation on the calling thread, which becomes the server thread. Afterwards, the server keeps ticking until every queued command ran
+     * @return {@link Report}
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the tab completions
+     */
+    public @NotNull Report run() throws InterruptedException {
+        SimulatedServer server = this.server != null ? this.server : new SimulatedServer(players);
+        server.install();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        BlockingQueue<Completion> queue = new LinkedBlockingQueue<>();
+        CompletionWorker[] workers = new CompletionWorker[completionThreads];
+        List<Player> online = server.getPlayers();
+        Random random = new Random(seed);
+        double commandChance = commandsPerSecond / 20;
+        double completionChance = completionsPerSecond / 20;
+        long[] tickNanos = new long[ticks];
+        long executed = 0;
+        long requested = 0;
+
+        for(int i = 0; i < workers.length; i++) {
+            workers[i] = new CompletionWorker(queue, commands, threads);
+            workers[i].start();
+        }
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+
+        for(int tick = 0; tick < ticks; tick++) {
+            long tickStart = System.nanoTime();
+
+            server.tick();
+
+            for (Player player: online) {
+                if(random.nextDouble() < commandChance) {
+                    Command command = commandList[random.nextInt(commandList.length)];
+                    commands.call(player, command, command.getName(), ARGUMENTS[random.nextInt(ARGUMENTS.length)]);
+                    executed++;
+                }
+
+                if(random.nextDouble() < completionChance) {
+                    Command command = commandList[random.nextInt(commandList.length)];
+                    queue.add(new Completion(player, command, PARTIAL_ARGUMENTS[random.nextInt(PARTIAL_ARGUMENTS.length)], System.nanoTime()));
+                    requested++;
+                }
+            }
+
+            tickNanos[tick] = System.nanoTime() - tickStart;
+
+            if(isRealTime)
+                LockSupport.parkNanos(tickStart + TICK_NANOS - System.nanoTime());
+        }
+
+        long tickAllocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        for(int i = 0; i < workers.length; i++)
+            queue.add(Completion.STOP);
+        for (CompletionWorker worker: workers)
+            worker.join();
+
+        long elapsed = System.nanoTime() - start;
+        CommandRateLimiter rateLimiter = commands.getRateLimiter();
+        TabCompletionCache cache = commands.getTabCompletionCache();
+
+        //Queued commands run on later ticks
+        if(rateLimiter != null && rateLimiter.getQueued() > 0) {
+            for(int tick = 0; tick < MAXIMUM_DRAIN_TICKS && handled() + rateLimiter.getRejected() + rateLimiter.getDropped() < executed; tick++)
+                server.tick();
+        }
+
+        long completionAllocated = 0;
+        int completed = 0;
+
+        for (CompletionWorker worker: workers) {
+            completionAllocated += worker.allocated;
+            completed += worker.count;
+        }
+
+        long[] latencies = new long[completed];
+        int position = 0;
+
+        for (CompletionWorker worker: workers) {
+            System.arraycopy(worker.latencies, 0, latencies, position, worker.count);
+            position += worker.count;
+        }
+
+        return new Report(ticks, executed, requested, elapsed, tickNanos, latencies, tickAllocated, completionAllocated, handled(),
+                rateLimiter != null ? rateLimiter.getRejected() : 0,
+                rateLimiter != null ? rateLimiter.getDropped() : 0,
+                rateLimiter != null ? rateLimiter.getQueued() : 0,
+                rateLimiter != null ? rateLimiter.getThrottledCompletions() : 0,
+                cache != null ? cache.getHits() : 0);
+    }
+
+    private long handled() {
+        long handled = 0;
+
+        for (NamedExecutor executor: executors)
+            handled += executor.getCalls();
+
+        return handled;
+    }
+
+    /**
+     * Runs a simulation from the command line. Every setting can be passed as key=value, i.e. {@code players=500 ticks=1200}
+     * @param args The settings
+     * @throws InterruptedException If interrupted while waiting for the tab completions
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Factory factory = Factory.make();
+
+        for (String arg: args) {
+            int equals = arg.indexOf('=');
+
+            if(equals < 0)
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+
+            String value = arg.substring(equals + 1);
+
+            switch (arg.substring(0, equals)) {
+                case "players": factory.setPlayers(Integer.parseInt(value)); break;
+                case "ticks": factory.setTicks(Integer.parseInt(value)); break;
+                case "executors": factory.setExecutors(Integer.parseInt(value)); break;
+                case "commandsPerSecond": factory.setCommandsPerSecond(Double.parseDouble(value)); break;
+                case "completionsPerSecond": factory.setCompletionsPerSecond(Double.parseDouble(value)); break;
+                case "completionThreads": factory.setCompletionThreads(Integer.parseInt(value)); break;
+                case "realTime": factory.isRealTime(Boolean.parseBoolean(value)); break;
+                case "seed": factory.setSeed(Long.parseLong(value)); break;
+                default: throw new IllegalArgumentException("Unknown setting " + arg);
+            }
+        }
+
+        LoadSimulation simulation = factory.create();
+
+        //Warm up so the report measures compiled code
+        Factory.make().setPlayers(simulation.players).setTicks(200).create().run();
+
+        for (String line: simulation.run().lines())
+            System.out.println(line);
+    }
+
+    /**
+     * A tab completion waiting for a thread
+     */
+    private static final class Completion {
+        private static final Completion STOP = new Completion(null, null, null, 0);
+
+        private final Player player;
+        private final Command command;
+        private final String[] args;
+        private final long queued;
+
+        private Completion(Player player, Command command, String[] args, long queued) {
+            this.player = player;
+            this.command = command;
+            this.args = args;
+            this.queued = queued;
+        }
+    }
+
+    /**
+     * Answers tab completions like the threads Paper uses for asynchronous tab completion
+     */
+    private static final class CompletionWorker extends Thread {
+        private final BlockingQueue<Completion> queue;
+        private final PluginCommands commands;
+        private final com.sun.management.ThreadMXBean threads;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long allocated;
+
+        private CompletionWorker(BlockingQueue<Completion> queue, PluginCommands commands, com.sun.management.ThreadMXBean threads) {
+            super("Simulation-TabComplete");
+            this.queue = queue;
+            this.commands = commands;
+            this.threads = threads;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long before = threads.getCurrentThreadAllocatedBytes();
+
+            try {
+                Completion completion;
+
+                while((completion = queue.take()) != Completion.STOP) {
+                    commands.completeTab(completion.player, completion.command, completion.command.getName(), completion.args);
+
+                    if(count == latencies.length)
+                        latencies = Arrays.copyOf(latencies, count * 2);
+
+                    latencies[count++] = System.nanoTime() - completion.queued;
+                }
+            } catch (InterruptedException ignored) {
+                //Stopped early
+            }
+
+            allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        }
+    }
+
+    /**
+     * The results of a {@link LoadSimulation}
+     */
+    public static final class Report {
+        private final int ticks;
+        private final long commands;
+        private final long completions;
+        private final long elapsedNanos;
+        private final long[] tickNanos;
+        private final long[] completionNanos;
+        private final long tickAllocated;
+        private final long completionAllocated;
+        private final long handled;
+        private final long rejected;
+        private final long dropped;
+        private final long queued;
+        private final long throttledCompletions;
+        private final long cacheHits;
+
+        private Report(int ticks, long commands, long completions, long elapsedNanos, long[] tickNanos, long[] completionNanos, long tickAllocated, long completionAllocated,
+                       long handled, long rejected, long dropped, long queued, long throttledCompletions, long cacheHits) {
+            this.ticks = ticks;
+            this.commands = commands;
+            this.completions = completions;
+            this.elapsedNanos = elapsedNanos;
+            this.tickNanos = tickNanos.clone();
+            this.completionNanos = completionNanos.clone();
+            this.tickAllocated = tickAllocated;
+            this.completionAllocated = completionAllocated;
+            this.handled = handled;
+            this.rejected = rejected;
+            this.dropped = dropped;
+            this.queued = queued;
+            this.throttledCompletions = throttledCompletions;
+            this.cacheHits = cacheHits;
+
+            Arrays.sort(this.tickNanos);
+            Arrays.sort(this.completionNanos);
+        }
+
+        /**
+         * Get the amount of commands executed
+         * @return long
+         */
+        public long getCommands() {
+            return commands;
+        }
+
+        /**
+         * Get the amount of tab completions requested
+         * @return long
+         */
+        public long getCompletions() {
+            return completions;
+        }
+
+        /**
+         * Get the amount of commands that reached their executor, including the queued ones
+         * @return long
+         */
+        public long getHandled() {
+            return handled;
+        }
+
+        /**
+         * Get the amount of commands rejected by the {@link CommandRateLimiter}
+         * @return long
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Get the amount of commands dropped by the {@link CommandRateLimiter}
+         * @return long
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * Get the amount of commands queued for a later tick by the {@link CommandRateLimiter}
+         * @return long
+         */
+        public long getQueued() {
+            return queued;
+        }
+
+        /**
+         * Get the amount of commands that were neither handled, rejected nor dropped. Should always be 0
+         * @return long
+         */
+        public long getLost() {
+            return commands - handled - rejected - dropped;
+        }
+
+        /**
+         * Get the amount of tab completions the {@link CommandRateLimiter} answered with nothing
+         * @return long
+         */
+        public long getThrottledCompletions() {
+            return throttledCompletions;
+        }
+
+        /**
+         * Get the amount of tab completions answered by the {@link TabCompletionCache}
+         * @return long
+         */
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        /**
+         * Get the commands executed each second of the whole run
+         * @return double
+         */
+        public double getCommandThroughput() {
+            return commands / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Get the tab completions answered each second of the whole run
+         * @return double
+         */
+        public double getCompletionThroughput() {
+            return completionNanos.length / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Get the time a tick spent on commands at a percentile
+         * @param percentile Between 0 and 100
+         * @return The nanoseconds
+         */
+        public long getTickPercentile(double percentile) {
+            return percentile(tickNanos, percentile);
+        }
+
+        /**
+         * Get the time from requesting a tab completion until it was answered at a percentile
+         * @param percentile Between 0 and 100
+         * @return The nanoseconds
+         */
+        public long getCompletionPercentile(double percentile) {
+            return percentile(completionNanos, percentile);
+        }
+
+        /**
+         * Get the bytes allocated on the server thread each tick, by the commands and by queuing the tab completions
+         * @return double
+         */
+        public double getAllocatedPerTick() {
+            return (double) tickAllocated / ticks;
+        }
+
+        /**
+         * Get the bytes allocated by the tab completion threads for each tab completion
+         * @return double
+         */
+        public double getAllocatedPerCompletion() {
+            return completionNanos.length == 0 ? 0 : (double) completionAllocated / completionNanos.length;
+        }
+
+        /**
+         * Get the bytes allocated each second by every simulated thread
+         * @return double
+         */
+        public double getAllocationRate() {
+            return (tickAllocated + completionAllocated) / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Get the report as text
+         * @return The lines of the report
+         */
+        public @NotNull List<String> lines() {
+            List<String> lines = new ArrayList<>();
+
+            lines.add(String.format(Locale.ROOT, "%d ticks in %.2fs", ticks, elapsedNanos / 1e9));
+            lines.add(String.format(Locale.ROOT, "Commands: %d, %.0f/s", commands, getCommandThroughput()));
+            lines.add(String.format(Locale.ROOT, "Tab completions: %d, %.0f/s", completions, getCompletionThroughput()));
+            lines.add(String.format(Locale.ROOT, "Rate limited: %d rejected, %d dropped, %d queued, %d lost, %d tab completions throttled",
+                    rejected, dropped, queued, getLost(), throttledCompletions));
+            lines.add(String.format(Locale.ROOT, "Tab completion cache: %d hits", cacheHits));
+            lines.add(String.format(Locale.ROOT, "Tick time on commands: p50 %.3fms, p95 %.3fms, p99 %.3fms, max %.3fms",
+                    getTickPercentile(50) / 1e6, getTickPercentile(95) / 1e6, getTickPercentile(99) / 1e6, getTickPercentile(100) / 1e6));
+            lines.add(String.format(Locale.ROOT, "Tab completion latency: p50 %.3fms, p95 %.3fms, p99 %.3fms, max %.3fms",
+                    getCompletionPercentile(50) / 1e6, getCompletionPercentile(95) / 1e6, getCompletionPercentile(99) / 1e6, getCompletionPercentile(100) / 1e6));
+            lines.add(String.format(Locale.ROOT, "Allocated: %.0f B/tick on the server thread, %.0f B/tab completion, %.2f MB/s",
+                    getAllocatedPerTick(), getAllocatedPerCompletion(), getAllocationRate() / (1 << 20)));
+
+            return lines;
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if(sorted.length == 0)
+                return 0;
+
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+
+            return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+        }
+    }
+
+    /**
+     * The Factory for setting the Load Simulation
+     */
+    public static class Factory {
+        private PluginCommands commands;
+        private SimulatedServer server;
+        private int executors;
+        private int players;
+        private int ticks;
+        private double commandsPerSecond;
+        private double completionsPerSecond;
+        private int completionThreads;
+        private boolean isRealTime;
+        private long seed;
+
+        /**
+         * Create a new {@link Factory} instance that can later be created using {@link Factory#create()} once done setting the appropriate variables
+         */
+        private Factory() {
+            commands = null;
+            server = null;
+            executors = 100;
+            players = 200;
+            ticks = 600;
+            commandsPerSecond = 0.5;
+            completionsPerSecond = 4;
+            completionThreads = 4;
+            isRealTime = false;
+            seed = 1;
+        }
+
+        /**
+         * Make a new {@link Factory} instance
+         * @return {@link Factory}
+         */
+        public static Factory make() {
+            return new Factory();
+        }
+
+        /**
+         * Sets the {@link PluginCommands} under test, with its {@link CommandRateLimiter}, {@link TabCompletionCache} and so on.
+         * A {@link NamedExecutor} is registered to it for each command. Defaults to a {@link ConcurrentPluginCommands}
+         * @param value {@link PluginCommands}
+         * @return The same instance
+         */
+        public Factory setCommands(@NotNull PluginCommands value) {
+            this.commands = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the {@link SimulatedServer} the players are on, i.e. to create a {@link CommandRateLimiter} with its plugin first.
+         * Overrides the amount of players. Defaults to a new {@link SimulatedServer}
+         * @param value {@link SimulatedServer}
+         * @return The same instance
+         */
+        public Factory setServer(@NotNull SimulatedServer value) {
+            this.server = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the amount of commands, each with its own executor. Defaults to 100
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setExecutors(int value) {
+            this.executors = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the amount of online players. Defaults to 200
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setPlayers(int value) {
+            this.players = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the amount of ticks simulated. Defaults to 600, which is 30 seconds of a server
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setTicks(int value) {
+            this.ticks = value;
+
+            return this;
+        }
+
+        /**
+         * Sets how many commands each player runs each second on average. Defaults to 0.5
+         * @param value double
+         * @return The same instance
+         */
+        public Factory setCommandsPerSecond(double value) {
+            this.commandsPerSecond = value;
+
+            return this;
+        }
+
+        /**
+         * Sets how many tab completions each player requests each second on average. Defaults to 4
+         * @param value double
+         * @return The same instance
+         */
+        public Factory setCompletionsPerSecond(double value) {
+            this.completionsPerSecond = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the amount of threads answering tab completions. Defaults to 4
+         * @param value int
+         * @return The same instance
+         */
+        public Factory setCompletionThreads(int value) {
+            this.completionThreads = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the isRealTime value. If true, each tick waits until 50 milliseconds passed like a real server, otherwise the ticks run back to back. Defaults to false
+         * @param value boolean
+         * @return The same instance
+         */
+        public Factory isRealTime(boolean value) {
+            this.isRealTime = value;
+
+            return this;
+        }
+
+        /**
+         * Sets the seed of the random players, so runs can be compared. Defaults to 1
+         * @param value long
+         * @return The same instance
+         */
+        public Factory setSeed(long value) {
+            this.seed = value;
+
+            return this;
+        }
+
+        /**
+         * Creates the new {@link LoadSimulation} instance
+         * @return {@link LoadSimulation}
+         */
+        public LoadSimulation create() {
+            int online = server != null ? server.getPlayers().size() : players;
+
+            if(online < 1 || ticks < 1 || completionThreads < 1 || executors < 1)
+                throw new IllegalArgumentException("Players, ticks, completion threads and executors have to be at least 1!");
+            if(commandsPerSecond < 0 || completionsPerSecond < 0)
+                throw new IllegalArgumentException("Commands and completions per second can't be negative!");
+
+            PluginCommands target = commands != null ? commands : new ConcurrentPluginCommands();
+            NamedExecutor[] registered = new NamedExecutor[executors];
+            String[] names = new String[executors];
+
+            for(int i = 0; i < executors; i++) {
+                names[i] = "command" + i;
+                registered[i] = new NamedExecutor(names[i]);
+                target.register(registered[i], names[i]);
+            }
+
+            return new LoadSimulation(target, registered, names, server, online, ticks, commandsPerSecond, completionsPerSecond, completionThreads, isRealTime, seed);
+        }
+    }
+}
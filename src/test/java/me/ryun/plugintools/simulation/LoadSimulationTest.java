@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.simulation;
+
+import me.ryun.plugintools.CommandRateLimiter;
+import me.ryun.plugintools.ConcurrentPluginCommands;
+import me.ryun.plugintools.PluginCommands;
+import me.ryun.plugintools.TabCompletionCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadSimulationTest {
+    private static final long TICK_BOUND = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long COMPLETION_BOUND = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void everyCommandIsHandledWithinATick() throws InterruptedException {
+        LoadSimulation.Report report = LoadSimulation.Factory.make()
+                .setPlayers(100)
+                .setTicks(200)
+                .setCommandsPerSecond(2)
+                .create()
+                .run();
+
+        assertTrue(report.getCommands() > 0);
+        assertEquals(report.getCommands(), report.getHandled());
+        assertEquals(0, report.getLost());
+        assertTrue(report.getTickPercentile(99) < TICK_BOUND, () -> String.join("\n", report.lines()));
+        assertTrue(report.getCompletionPercentile(99) < COMPLETION_BOUND, () -> String.join("\n", report.lines()));
+    }
+
+    @Test
+    void queuedCommandsRunOnLaterTicks() throws InterruptedException {
+        SimulatedServer server = new SimulatedServer(50);
+        server.install();
+
+        PluginCommands commands = new ConcurrentPluginCommands();
+        commands.setRateLimiter(CommandRateLimiter.Factory.make()
+                .setPlugin(server.getPlugin())
+                .setPolicy(CommandRateLimiter.Policy.QUEUE)
+                .setCommandLimit(2, Duration.ofSeconds(1))
+                .setCompletionLimit(5, Duration.ofSeconds(1))
+                .create());
+
+        LoadSimulation.Report report = simulate(server, commands);
+
+        assertTrue(report.getQueued() > 0, () -> String.join("\n", report.lines()));
+        assertTrue(report.getRejected() > 0, () -> String.join("\n", report.lines())); //Over the queue capacity
+        assertTrue(report.getThrottledCompletions() > 0, () -> String.join("\n", report.lines()));
+        assertEquals(0, report.getDropped());
+        assertEquals(0, report.getLost(), () -> String.join("\n", report.lines()));
+        assertTrue(report.getTickPercentile(99) < TICK_BOUND, () -> String.join("\n", report.lines()));
+    }
+
+    @Test
+    void droppedCommandsAreCounted() throws InterruptedException {
+        SimulatedServer server = new SimulatedServer(50);
+        server.install();
+
+        PluginCommands commands = new ConcurrentPluginCommands();
+        commands.setRateLimiter(CommandRateLimiter.Factory.make()
+                .setPlugin(server.getPlugin())
+                .setPolicy(CommandRateLimiter.Policy.DROP)
+                .setCommandLimit(2, Duration.ofSeconds(1))
+                .create());
+
+        LoadSimulation.Report report = simulate(server, commands);
+
+        assertTrue(report.getDropped() > 0, () -> String.join("\n", report.lines()));
+        assertTrue(report.getHandled() > 0);
+        assertEquals(0, report.getRejected() + report.getQueued());
+        assertEquals(0, report.getLost(), () -> String.join("\n", report.lines()));
+    }
+
+    @Test
+    void repeatedTabCompletionsAreCached() throws InterruptedException {
+        PluginCommands commands = new ConcurrentPluginCommands();
+        commands.setTabCompletionCache(TabCompletionCache.Factory.make().setTimeToLive(Duration.ofMinutes(1)).create());
+
+        LoadSimulation.Report report = LoadSimulation.Factory.make()
+                .setCommands(commands)
+                .setExecutors(10)
+                .setPlayers(50)
+                .setTicks(200)
+                .create()
+                .run();
+
+        assertTrue(report.getCacheHits() > 0, () -> String.join("\n", report.lines()));
+        assertEquals(0, report.getLost());
+        assertTrue(report.getCompletionPercentile(99) < COMPLETION_BOUND, () -> String.join("\n", report.lines()));
+    }
+
+    /**
+     * Every player runs a command every tick, which is far over the limits
+     */
+    private static LoadSimulation.Report simulate(SimulatedServer server, PluginCommands commands) throws InterruptedException {
+        return LoadSimulation.Factory.make()
+                .setServer(server)
+                .setCommands(commands)
+                .setExecutors(10)
+                .setTicks(200)
+                .setCommandsPerSecond(20)
+                .setCompletionsPerSecond(20)
+                .create()
+                .run();
+    }
+}
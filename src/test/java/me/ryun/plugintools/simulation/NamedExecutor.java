@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.simulation;
+
+import me.ryun.plugintools.CachedTabCompletion;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link TabExecutor} written the way most plugins write them: it checks the command name itself and ignores every other command.
+ * Counts how many times its command was called, and its tab completions can be remembered by a {@link me.ryun.plugintools.TabCompletionCache}
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public class NamedExecutor implements TabExecutor, CachedTabCompletion {
+    private static final List<String> COMPLETIONS = List.of("add", "list", "remove");
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+
+    /**
+     * Create a new {@link NamedExecutor}
+     * @param name The name of the only command it executes
+     */
+    public NamedExecutor(@NotNull String name) {
+        this.name = name;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if(!command.getName().equalsIgnoreCase(name))
+            return false;
+
+        calls.increment();
+
+        return true;
+    }
+
+    @Override
+    public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+        if(!command.getName().equalsIgnoreCase(name))
+            return null;
+
+        return COMPLETIONS;
+    }
+
+    /**
+     * Get how many times its command was called
+     * @return long
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2023 SSS Ryun, otherwise known as SSS_Ryun or simply Ryun
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package me.ryun.plugintools.simulation;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * An in-memory {@link Server} with online players and a {@link BukkitScheduler} that runs its tasks when {@link #tick()} is called.
+ * The thread that calls {@link #tick()} is the server thread as far as {@link Bukkit#isPrimaryThread()} knows
+ * @author <a href="https://github.com/sss-ryun">SSS Ryun</a>
+ */
+public final class SimulatedServer {
+    private static volatile SimulatedServer current = null;
+    /**
+     * Bukkit only accepts a server once per JVM, so it gets this one that forwards to the latest installed {@link SimulatedServer}
+     */
+    private static final Server INSTALLED = (Server) Proxy.newProxyInstance(SimulatedServer.class.getClassLoader(), new Class<?>[] {Server.class}, (proxy, method, args) -> {
+        try {
+            return method.invoke(current.server, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    });
+
+    private final List<Player> players;
+    private final Server server;
+    private final BukkitScheduler scheduler;
+    private final Queue<Task> submitted;
+    private final List<Task> tasks;
+    private final AtomicInteger taskIds;
+    private volatile Thread mainThread;
+    private JavaPlugin plugin;
+    private long currentTick;
+
+    /**
+     * Create a new {@link SimulatedServer} with the amount of online players
+     * @param players The amount of players, named Player0, Player1...
+     */
+    public SimulatedServer(int players) {
+        List<Player> online = new ArrayList<>(players);
+
+        for(int i = 0; i < players; i++)
+            online.add(Headless.player("Player" + i));
+
+        this.players = Collections.unmodifiableList(online);
+        this.submitted = new ConcurrentLinkedQueue<>();
+        this.tasks = new ArrayList<>();
+        this.taskIds = new AtomicInteger();
+        this.scheduler = (BukkitScheduler) Proxy.newProxyInstance(SimulatedServer.class.getClassLoader(), new Class<?>[] {BukkitScheduler.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "runTask":
+                    return schedule((Runnable) args[1], 0, -1);
+                case "runTaskLater":
+                    return schedule((Runnable) args[1], (Long) args[2], -1);
+                case "runTaskTimer":
+                    return schedule((Runnable) args[1], (Long) args[2], (Long) args[3]);
+                case "runTaskAsynchronously":
+                    ForkJoinPool.commonPool().execute((Runnable) args[1]);
+                    return null;
+                case "callSyncMethod":
+                    FutureTask<?> future = new FutureTask<>((Callable<?>) args[1]);
+                    schedule(future, 0, -1);
+                    return future;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return Headless.defaultValue(method.getReturnType());
+            }
+        });
+        this.server = (Server) Proxy.newProxyInstance(SimulatedServer.class.getClassLoader(), new Class<?>[] {Server.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getOnlinePlayers":
+                    return this.players;
+                case "isPrimaryThread":
+                    return Thread.currentThread() == mainThread;
+                case "getScheduler":
+                    return scheduler;
+                case "getLogger":
+                    return Logger.getLogger("Simulation");
+                case "getName":
+                case "getVersion":
+                case "getBukkitVersion":
+                case "toString":
+                    return "Simulation";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    return Headless.defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * Makes this the server of {@link Bukkit}. Can be called again for every new {@link SimulatedServer} in the same JVM
+     * @return If this is now the server. False if something else already set the server of {@link Bukkit}
+     */
+    public boolean install() {
+        current = this;
+
+        if(Bukkit.getServer() == null)
+            Bukkit.setServer(INSTALLED);
+
+        return Bukkit.getServer() == INSTALLED;
+    }
+
+    /**
+     * Runs every task that is due this tick and moves on to the next tick. The calling thread becomes the server thread
+     */
+    public void tick() {
+        mainThread = Thread.currentThread();
+
+        Task added;
+        while((added = submitted.poll()) != null)
+            tasks.add(added);
+
+        //Tasks scheduled while this tick runs wait for the next tick, like Bukkit
+        List<Task> due = new ArrayList<>();
+
+        for (Iterator<Task> iterator = tasks.iterator(); iterator.hasNext();) {
+            Task task = iterator.next();
+
+            if(task.isCancelled) {
+                iterator.remove();
+            } else if(task.runAt <= currentTick) {
+                due.add(task);
+
+                if(task.period < 0)
+                    iterator.remove();
+                else
+                    task.runAt = currentTick + Math.max(task.period, 1);
+            }
+        }
+
+        for (Task task: due) {
+            if(!task.isCancelled)
+                task.runnable.run();
+        }
+
+        currentTick++;
+    }
+
+    /**
+     * Get the online players
+     * @return The unmodifiable players
+     */
+    public @NotNull List<Player> getPlayers() {
+        return players;
+    }
+
+    /**
+     * Get the {@link Server} stand-in
+     * @return {@link Server}
+     */
+    public @NotNull Server getServer() {
+        return server;
+    }
+
+    /**
+     * Get a plugin for the tools that need one, i.e. to schedule their tasks. Created the first time, after {@link #install()}
+     * @return {@link JavaPlugin}
+     */
+    public synchronized @NotNull JavaPlugin getPlugin() {
+        if(plugin == null)
+            plugin = new SimulatedPlugin(INSTALLED);
+
+        return plugin;
+    }
+
+    /**
+     * Get the amount of ticks so far
+     * @return long
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    private BukkitTask schedule(Runnable runnable, long delay, long period) {
+        Task task = new Task(taskIds.incrementAndGet(), runnable, currentTick + Math.max(delay, 0), period);
+        submitted.add(task);
+
+        return task.handle;
+    }
+
+    /**
+     * A plugin created with the constructor Bukkit keeps for tests, since the normal one requires the class loader of a real server
+     */
+    private static final class SimulatedPlugin extends JavaPlugin {
+        @SuppressWarnings({"deprecation", "removal"})
+        private SimulatedPlugin(Server server) {
+            super(new JavaPluginLoader(server), new PluginDescriptionFile("Simulation", "1.0", SimulatedPlugin.class.getName()),
+                    new File("build/simulation"), new File("build/simulation/Simulation.jar"));
+        }
+    }
+
+    /**
+     * A task waiting for its tick
+     */
+    private static final class Task {
+        private final Runnable runnable;
+        private final long period;
+        private final BukkitTask handle;
+        private long runAt;
+        private volatile boolean isCancelled;
+
+        private Task(int id, Runnable runnable, long runAt, long period) {
+            this.runnable = runnable;
+            this.runAt = runAt;
+            this.period = period;
+            this.handle = (BukkitTask) Proxy.newProxyInstance(SimulatedServer.class.getClassLoader(), new Class<?>[] {BukkitTask.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getTaskId":
+                        return id;
+                    case "cancel":
+                        isCancelled = true;
+                        return null;
+                    case "isCancelled":
+                        return isCancelled;
+                    case "isSync":
+                        return true;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return Headless.defaultValue(method.getReturnType());
+                }
+            });
+        }
+    }
+}